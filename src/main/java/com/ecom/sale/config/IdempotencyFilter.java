@@ -0,0 +1,295 @@
+package com.ecom.sale.config;
+
+import com.ecom.sale.dto.UserPrincipal;
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.util.BoundedTtlCache;
+import com.ecom.sale.util.ErrorUtils;
+import com.ecom.sale.util.HashUtils;
+import com.ecom.sale.util.IdempotencyStore;
+import com.ecom.sale.util.IdempotencyStore.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern IDEMPOTENT_PATHS =
+            Pattern.compile("^/api/(orders(/batch)?|payments/\\d+/(create|pay))$");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${idempotency.lease:PT1M}")
+    private Duration lease;
+
+    @Value("${idempotency.wait-timeout:PT10S}")
+    private Duration waitTimeout;
+
+    @Value("${idempotency.poll-interval:PT0.1S}")
+    private Duration pollInterval;
+
+    @Value("${idempotency.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private BoundedTtlCache<String, StoredResponse> recent;
+
+    @PostConstruct
+    void init() {
+        recent = new BoundedTtlCache<>(cacheMaxSize);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !"POST".equals(request.getMethod())
+                || !IDEMPOTENT_PATHS.matcher(path(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var cachedRequest = new CachedBodyRequest(request);
+        var fingerprint = HashUtils.sha256Hex(request.getMethod() + " " + path(request) + "\n"
+                + new String(cachedRequest.body, StandardCharsets.UTF_8));
+        var cacheKey = principal.getId() + ":" + key;
+
+        var cached = recent.get(cacheKey);
+        if (cached != null) {
+            replay(request, response, cached, fingerprint);
+            return;
+        }
+
+        var own = new CompletableFuture<StoredResponse>();
+        var running = inFlight.putIfAbsent(cacheKey, own);
+        if (running != null) {
+            awaitAndReplay(request, response, running, fingerprint);
+            return;
+        }
+        try {
+            execute(cachedRequest, response, filterChain, principal.getId(), key, cacheKey, fingerprint, own);
+        } finally {
+            inFlight.remove(cacheKey, own);
+            own.complete(null);
+        }
+    }
+
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         Long userId, String key, String cacheKey, String fingerprint,
+                         CompletableFuture<StoredResponse> own) throws ServletException, IOException {
+        var deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (!idempotencyStore.claim(userId, key, fingerprint, lease)) {
+            var entry = idempotencyStore.find(userId, key).orElse(null);
+            if (entry != null && entry.completed()) {
+                recent.put(cacheKey, entry.response(), System.currentTimeMillis() + ttl.toMillis());
+                own.complete(entry.response());
+                replay(request, response, entry.response(), fingerprint);
+                return;
+            }
+            if (entry != null && !entry.fingerprint().equals(fingerprint)) {
+                writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used with a different request");
+                return;
+            }
+            // the first request is still running, possibly on another node, or was released since the claim
+            if (System.nanoTime() >= deadline || !pause()) {
+                writeInProgress(request, response);
+                return;
+            }
+        }
+
+        var wrapped = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapped);
+        } catch (ServletException | IOException | RuntimeException e) {
+            idempotencyStore.release(userId, key);
+            throw e;
+        }
+
+        if (wrapped.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            idempotencyStore.release(userId, key);
+        } else {
+            var stored = new StoredResponse(fingerprint, wrapped.getStatus(), wrapped.getContentType(),
+                    new String(wrapped.getContentAsByteArray(), StandardCharsets.UTF_8));
+            idempotencyStore.complete(userId, key, stored, ttl);
+            recent.put(cacheKey, stored, System.currentTimeMillis() + ttl.toMillis());
+            own.complete(stored);
+        }
+        wrapped.copyBodyToResponse();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitAndReplay(HttpServletRequest request, HttpServletResponse response,
+                                CompletableFuture<StoredResponse> running, String fingerprint) throws IOException {
+        StoredResponse stored;
+        try {
+            stored = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stored = null;
+        } catch (ExecutionException | TimeoutException e) {
+            stored = null;
+        }
+        if (stored == null) {
+            writeInProgress(request, response);
+            return;
+        }
+        replay(request, response, stored, fingerprint);
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, StoredResponse stored,
+                        String fingerprint) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+            return;
+        }
+        log.debug("Replaying stored response for idempotent request {}", path(request));
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeInProgress(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        writeError(request, response, HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                            String message) throws IOException {
+        var error = new CustomException(path(request), status, message, LocalDateTime.now());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorUtils.buildError(error));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // the body is already in memory, so it is all available at once
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
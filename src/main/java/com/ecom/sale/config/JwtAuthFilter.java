@@ -1,14 +1,19 @@
 package com.ecom.sale.config;
 
+import com.ecom.sale.dto.AccessTokenClaims;
+import com.ecom.sale.dto.UserPrincipal;
 import com.ecom.sale.service.impl.CustomUserDetailService;
-import com.ecom.sale.util.JwtUtils;
+import com.ecom.sale.util.JwtTokenVerifier;
+import com.ecom.sale.util.TokenVersionRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,9 +24,13 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtils jwtUtils;
+    private final JwtTokenVerifier tokenVerifier;
+    private final TokenVersionRegistry tokenVersionRegistry;
     private final CustomUserDetailService userDetailsService;
 
+    @Value("${jwt.access.claims-auth:true}")
+    private boolean claimsAuthentication;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -32,17 +41,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         var jwt = authHeader.substring(7);
-        var username = jwtUtils.extractUsername(jwt, false);
+        var claims = tokenVerifier.verifyAccessToken(jwt).orElse(null);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtils.isTokenValid(jwt, userDetails, false)) {
+        if (claims != null && claims.username() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            var principal = resolvePrincipal(claims);
+            if (principal != null) {
                 var authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserPrincipal resolvePrincipal(AccessTokenClaims claims) {
+        var tokenPrincipal = claims.toPrincipal();
+        if (claimsAuthentication && tokenPrincipal != null) {
+            return tokenVersionRegistry.isCurrent(tokenPrincipal.getId(), tokenPrincipal.getTokenVersion())
+                    ? tokenPrincipal
+                    : null;
+        }
+
+        UserPrincipal principal;
+        try {
+            principal = userDetailsService.loadPrincipal(claims.username());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        if (claims.tokenVersion() != null && claims.tokenVersion() != principal.getTokenVersion()) {
+            return null;
+        }
+        return principal;
+    }
+}
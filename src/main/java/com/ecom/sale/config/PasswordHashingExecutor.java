@@ -0,0 +1,151 @@
+package com.ecom.sale.config;
+
+import com.ecom.sale.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+
+    private static final String API = "/auth";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.hashing.timeout:5000}")
+    private long timeoutInMs;
+
+    @Value("${security.password.hashing.retry-after:1}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        var poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        var threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        rejected = Counter.builder("password.hash.rejected").register(meterRegistry);
+        log.info("Password hashing executor started: threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T> T execute(String operation, Callable<T> task) {
+        var timer = timer(operation);
+        try {
+            var future = executor.submit(() -> timer.recordCallable(task));
+            try {
+                return future.get(timeoutInMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw busy("Password hashing timed out");
+            }
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw busy("Authentication service is busy, try again later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public <T> List<T> executeAll(String operation, List<Callable<T>> tasks) {
+        var timer = timer(operation);
+        // half the pool at most, so login and register keep threads while a bulk job runs
+        var window = Math.max(1, executor.getCorePoolSize() / 2);
+        var results = new ArrayList<T>(tasks.size());
+        for (int from = 0; from < tasks.size(); from += window) {
+            var batch = tasks.subList(from, Math.min(from + window, tasks.size()));
+            var futures = new ArrayList<Future<T>>(batch.size());
+            for (var task : batch) {
+                try {
+                    futures.add(executor.submit(() -> timer.recordCallable(task)));
+                } catch (RejectedExecutionException e) {
+                    futures.forEach(future -> future.cancel(true));
+                    rejected.increment();
+                    throw busy("Password hashing is saturated, try again later");
+                }
+            }
+            for (var future : futures) {
+                results.add(await(future));
+            }
+        }
+        return results;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("password.hash.duration")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private ThrottledException busy(String message) {
+        return new ThrottledException(API, HttpStatus.SERVICE_UNAVAILABLE, message, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecom.sale.config;
+
+import com.ecom.sale.dto.AccessTokenClaims;
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.util.ErrorUtils;
+import com.ecom.sale.util.JwtTokenVerifier;
+import com.ecom.sale.util.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final JwtTokenVerifier tokenVerifier;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.stripes:16}")
+    private int stripes;
+
+    @Value("${rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${rate-limit.login.capacity:10}")
+    private int loginCapacity;
+
+    @Value("${rate-limit.login.refill-per-minute:10}")
+    private int loginRefillPerMinute;
+
+    @Value("${rate-limit.register.capacity:5}")
+    private int registerCapacity;
+
+    @Value("${rate-limit.register.refill-per-minute:5}")
+    private int registerRefillPerMinute;
+
+    @Value("${rate-limit.order-writes.capacity:30}")
+    private int orderWritesCapacity;
+
+    @Value("${rate-limit.order-writes.refill-per-minute:60}")
+    private int orderWritesRefillPerMinute;
+
+    private final List<RouteLimit> routeLimits = new ArrayList<>();
+    private TokenBucketRateLimiter limiter;
+
+    @PostConstruct
+    void init() {
+        limiter = new TokenBucketRateLimiter(stripes, maxKeys);
+        addRoute("login", loginCapacity, loginRefillPerMinute, false,
+                request -> isMethod(request, "POST") && "/auth/login".equals(path(request)));
+        addRoute("register", registerCapacity, registerRefillPerMinute, false,
+                request -> isMethod(request, "POST") && "/auth/register".equals(path(request)));
+        addRoute("order-writes", orderWritesCapacity, orderWritesRefillPerMinute, true,
+                request -> isMethod(request, "POST", "PUT", "DELETE")
+                        && (path(request).equals("/api/orders") || path(request).startsWith("/api/orders/")));
+        Gauge.builder("rate.limit.buckets", limiter, TokenBucketRateLimiter::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (enabled) {
+            for (var route : routeLimits) {
+                if (!route.matcher().test(request)) {
+                    continue;
+                }
+                var key = route.name() + ":" + clientKey(request, route.byPrincipal());
+                var waitNanos = limiter.tryAcquire(key, route.capacity(), route.refillIntervalNanos());
+                if (waitNanos > 0) {
+                    route.rejected().increment();
+                    reject(request, response, waitNanos);
+                    return;
+                }
+                break;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.idle-eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        var evicted = limiter.evictIdle();
+        log.debug("Evicted {} idle rate limit buckets", evicted);
+    }
+
+    private void addRoute(String name, int capacity, int refillPerMinute, boolean byPrincipal,
+                          Predicate<HttpServletRequest> matcher) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            return;
+        }
+        var rejected = Counter.builder("rate.limit.rejected")
+                .tag("route", name)
+                .register(meterRegistry);
+        routeLimits.add(new RouteLimit(name, capacity, TimeUnit.MINUTES.toNanos(1) / refillPerMinute,
+                byPrincipal, matcher, rejected));
+    }
+
+    private String clientKey(HttpServletRequest request, boolean byPrincipal) {
+        var authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (byPrincipal && authHeader != null && authHeader.startsWith("Bearer ")) {
+            var username = tokenVerifier.verifyAccessToken(authHeader.substring(7))
+                    .map(AccessTokenClaims::username)
+                    .orElse(null);
+            if (username != null) {
+                return "user:" + username;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        var retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        var error = new CustomException(path(request), HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests, try again later", LocalDateTime.now());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorUtils.buildError(error));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static boolean isMethod(HttpServletRequest request, String... methods) {
+        return Set.of(methods).contains(request.getMethod());
+    }
+
+    private record RouteLimit(String name, int capacity, long refillIntervalNanos, boolean byPrincipal,
+                              Predicate<HttpServletRequest> matcher, Counter rejected) {
+    }
+}
@@ -1,7 +1,12 @@
 package com.ecom.sale.controller;
 
+import com.ecom.sale.dto.CursorPageDto;
+import com.ecom.sale.dto.OrderBatchResultDto;
 import com.ecom.sale.dto.OrderDto;
+import com.ecom.sale.dto.OrderIntakeDto;
+import com.ecom.sale.dto.request.OrderBatchRequest;
 import com.ecom.sale.dto.request.OrderRequest;
+import com.ecom.sale.service.OrderExportService;
 import com.ecom.sale.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,14 +15,25 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -25,19 +41,67 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Orders", description = "Order management API")
 public class OrderController {
 
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
-    @Operation(summary = "Create new order", description = "Creates a new order based on the provided product IDs and quantities")
+    @Operation(summary = "Create new order",
+            description = "Creates a new order based on the provided product IDs and quantities. "
+                    + "With the header Prefer: respond-async the order is validated and queued instead, then created by a background worker together with other queued orders; poll the returned intake for the result.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Order successfully created",
                     content = @Content(schema = @Schema(implementation = OrderDto.class))),
+            @ApiResponse(responseCode = "202", description = "Order accepted for processing",
+                    content = @Content(schema = @Schema(implementation = OrderIntakeDto.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Intake queue is full", content = @Content),
     }
     )
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(
-            @RequestBody @Valid OrderRequest request) {
-        return ResponseEntity.ok(orderService.createOrder(request));
+    public ResponseEntity<?> createOrder(
+            @RequestBody @Valid OrderRequest request,
+            @Parameter(description = "respond-async to queue the order", example = "respond-async")
+            @RequestHeader(value = PREFER, required = false) List<String> prefer) {
+        if (!prefersAsync(prefer)) {
+            return ResponseEntity.ok(orderService.createOrder(request));
+        }
+        var intake = orderService.submitOrder(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/orders/intake/" + intake.getIntakeId())
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(intake);
+    }
+
+    @Operation(summary = "Get queued order", description = "Returns the state of an order queued with Prefer: respond-async.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Intake retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = OrderIntakeDto.class))),
+            @ApiResponse(responseCode = "404", description = "Intake not found or expired", content = @Content),
+    }
+    )
+    @GetMapping("/intake/{intakeId}")
+    public ResponseEntity<OrderIntakeDto> getOrderIntake(
+            @Parameter(description = "Intake id returned when the order was queued")
+            @PathVariable String intakeId
+    ) {
+        return ResponseEntity.ok(orderService.getOrderIntake(intakeId));
+    }
+
+    @Operation(summary = "Create orders in batch",
+            description = "Creates many orders in one request. Each order succeeds or fails on its own; failures are reported per order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed",
+                    content = @Content(schema = @Schema(implementation = OrderBatchResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+    }
+    )
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResultDto> createOrders(
+            @RequestBody @Valid OrderBatchRequest request) {
+        return ResponseEntity.ok(orderService.createOrders(request));
     }
 
     @Operation(summary = "Update existing order", description = "Updates an existing order by ID. Old items will be replaced with new ones.")
@@ -109,4 +173,66 @@ public class OrderController {
     ) {
         return ResponseEntity.ok(orderService.getOrders(pageable));
     }
+
+    @Operation(summary = "Export orders",
+            description = "Streams all orders created in [from, to) with their items and payment status as CSV (one row per item) or NDJSON (one order per line). "
+                    + "The body is gzip-compressed when the client sends Accept-Encoding: gzip. Allowed only for admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export stream"),
+            @ApiResponse(responseCode = "400", description = "Invalid range or format", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+    }
+    )
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportOrders(
+            @Parameter(description = "Start of the range, inclusive", example = "2025-01-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the range, exclusive", example = "2025-02-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "csv or ndjson", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) {
+        var gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        var export = orderExportService.exportOrders(from, to, format, gzip);
+        response.setContentType(export.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(export.fileName())
+                .build()
+                .toString());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        // streamed from a task carrying its own timeout, so other async requests keep the default one
+        return new WebAsyncTask<>(export.timeout().toMillis(), () -> {
+            var output = response.getOutputStream();
+            export.body().writeTo(output);
+            output.flush();
+            return null;
+        });
+    }
+
+    @Operation(summary = "Scroll orders", description = "Keyset-paginated list of orders, newest first. Pass nextCursor of the previous slice to continue.")
+    @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDto<OrderDto>> scrollOrders(
+            @Parameter(description = "Cursor returned by the previous slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size, at most 100", example = "20")
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.scrollOrders(cursor, size));
+    }
+
+    // Prefer: respond-async, wait=5 or several Prefer headers; parameters after ';' are ignored
+    private static boolean prefersAsync(List<String> prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        return prefer.stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(preference -> preference.split("[;=]", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
 }
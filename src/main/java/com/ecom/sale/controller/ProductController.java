@@ -1,5 +1,6 @@
 package com.ecom.sale.controller;
 
+import com.ecom.sale.dto.CursorPageDto;
 import com.ecom.sale.dto.ProductDto;
 import com.ecom.sale.dto.ProductSearchCriteria;
 import com.ecom.sale.dto.request.ProductRequest;
@@ -15,6 +16,7 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -49,7 +51,8 @@ public class ProductController {
             @Parameter(description = "ID of the product to retrieve", required = true)
             @PathVariable Long id
     ) {
-        return ResponseEntity.ok(productService.getProduct(id));
+        var product = productService.getProduct(id);
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
     }
 
     @Operation(summary = "Get all products", description = "Returns a paginated list of products filtered by search criteria")
@@ -66,21 +69,61 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(criteria, pageable));
     }
 
-    @Operation(summary = "Update product", description = "Updates an existing product by ID")
+    @Operation(summary = "Scroll products", description = "Keyset-paginated list of products ordered by ID, filtered by search criteria")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDto<ProductDto>> scrollProducts(
+            @ParameterObject
+            @ModelAttribute ProductSearchCriteria criteria,
+            @Parameter(description = "Cursor returned by the previous slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size, at most 100", example = "20")
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(productService.scrollProducts(criteria, cursor, size));
+    }
+
+    @Operation(summary = "Update product",
+            description = "Replaces the product fields. The version read with the product must be sent as If-Match or in the body; "
+                    + "the update is rejected when the product changed since then.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product successfully updated"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "400", description = "Invalid input data or missing version"),
+            @ApiResponse(responseCode = "409", description = "Product was modified since the given version, reload it")
     })
     @PutMapping("/{id}")
     public ResponseEntity<ProductDto> updateProduct(
             @Parameter(description = "ID of the product to update", required = true)
             @PathVariable Long id,
+            @Parameter(description = "Version the update is based on, as returned in ETag", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Product update request body", required = true)
             @RequestBody ProductRequest request
     ) {
-        return ResponseEntity.ok(productService.updateProduct(id ,request));
+        var product = productService.updateProduct(id, request, ifMatch);
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
+    }
 
+    @Operation(summary = "Configure hot stock",
+            description = "Splits product stock across the given number of bucket rows to spread lock contention "
+                    + "during flash sales. Use 0 to merge the stock back into the product. Allowed only for admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock buckets configured"),
+            @ApiResponse(responseCode = "400", description = "Invalid bucket count"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PutMapping("/{id}/stock-buckets")
+    public ResponseEntity<ProductDto> configureStockBuckets(
+            @Parameter(description = "ID of the product", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Number of stock buckets, 0 disables hot mode", example = "16")
+            @RequestParam int buckets
+    ) {
+        return ResponseEntity.ok(productService.configureStockBuckets(id, buckets));
     }
 
     @Operation(summary = "Delete product", description = "Deletes a product by ID")
@@ -0,0 +1,72 @@
+package com.ecom.sale.controller;
+
+import com.ecom.sale.dto.CategorySalesDto;
+import com.ecom.sale.dto.SalesRollupDto;
+import com.ecom.sale.enums.OrderStatus;
+import com.ecom.sale.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Sales reports read from pre-aggregated rollups")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @Operation(summary = "Daily sales by category",
+            description = "Units, revenue and order count per day, category and order status for orders created in [from, to). "
+                    + "Allowed only for admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Report rows"),
+            @ApiResponse(responseCode = "400", description = "Invalid range", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+    }
+    )
+    @GetMapping("/sales/daily")
+    public ResponseEntity<List<SalesRollupDto>> getDailySales(
+            @Parameter(description = "First day, inclusive", example = "2025-08-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, exclusive", example = "2025-09-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only orders in this status")
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "Only this category")
+            @RequestParam(required = false) Long categoryId
+    ) {
+        return ResponseEntity.ok(reportService.getDailySales(from, to, status, categoryId));
+    }
+
+    @Operation(summary = "Sales by category",
+            description = "Units, revenue and order count per category for orders created in [from, to), highest revenue first. "
+                    + "Allowed only for admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Report rows"),
+            @ApiResponse(responseCode = "400", description = "Invalid range", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+    }
+    )
+    @GetMapping("/sales/categories")
+    public ResponseEntity<List<CategorySalesDto>> getCategorySales(
+            @Parameter(description = "First day, inclusive", example = "2025-08-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, exclusive", example = "2025-09-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only orders in this status")
+            @RequestParam(required = false) OrderStatus status
+    ) {
+        return ResponseEntity.ok(reportService.getCategorySales(from, to, status));
+    }
+}
@@ -1,8 +1,11 @@
 package com.ecom.sale.controller;
 
+import com.ecom.sale.dto.CursorPageDto;
 import com.ecom.sale.dto.UserDto;
+import com.ecom.sale.dto.UserImportReportDto;
 import com.ecom.sale.dto.UserSearchCriteria;
 import com.ecom.sale.dto.request.UserUpdateRequest;
+import com.ecom.sale.service.UserImportService;
 import com.ecom.sale.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,6 +14,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,6 +23,8 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -26,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @Operation(summary = "Get user by ID", description = "Returns user details by given user ID")
     @ApiResponses(value = {
@@ -55,6 +62,22 @@ public class UserController {
         return ResponseEntity.ok(userService.searchUser(criteria, pageable));
     }
 
+    @Operation(summary = "Scroll users with filters", description = "Keyset-paginated user search ordered by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search result",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/filter/scroll")
+    public ResponseEntity<CursorPageDto<UserDto>> scrollUsers(
+            @ModelAttribute UserSearchCriteria criteria,
+            @Parameter(description = "Cursor returned by the previous slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size, at most 100", example = "20")
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(userService.scrollUsers(criteria, cursor, size));
+    }
+
     @Operation(summary = "Update user", description = "Update email, phone or bio of a user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User updated",
@@ -87,4 +110,16 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Bulk import users",
+            description = "Streams a CSV (header: username,password,email,phone[,bio]) or NDJSON file and creates users with ROLE_USER. Allowed only for admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, rejected rows are listed in the report",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserImportReportDto.class))),
+            @ApiResponse(responseCode = "400", description = "Unsupported format or malformed header"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<UserImportReportDto> importUsers(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), request.getContentType()));
+    }
 }
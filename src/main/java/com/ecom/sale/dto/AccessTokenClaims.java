@@ -0,0 +1,21 @@
+package com.ecom.sale.dto;
+
+import java.util.List;
+
+/**
+ * Immutable projection of a verified access token. Id, version and roles are null for tokens issued
+ * before they were embedded as claims.
+ */
+public record AccessTokenClaims(String username, Long userId, Integer tokenVersion, List<String> roles) {
+
+    public AccessTokenClaims {
+        roles = roles == null ? null : List.copyOf(roles);
+    }
+
+    public UserPrincipal toPrincipal() {
+        if (userId == null || tokenVersion == null || roles == null) {
+            return null;
+        }
+        return new UserPrincipal(userId, username, null, tokenVersion, roles);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecom.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@ToString
+@Schema(description = "Sales of one category over a range of days")
+public class CategorySalesDto {
+
+    @Schema(description = "Category identifier", example = "3")
+    private Long categoryId;
+
+    @Schema(description = "Category name", example = "Electronics")
+    private String categoryName;
+
+    @Schema(description = "Units sold", example = "420")
+    private Long units;
+
+    @Schema(description = "Sum of item totals", example = "20995.80")
+    private BigDecimal revenue;
+
+    @Schema(description = "Orders with at least one item of the category", example = "170")
+    private Long orderCount;
+}
@@ -0,0 +1,35 @@
+package com.ecom.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@Schema(description = "Slice of a keyset-paginated list")
+public class CursorPageDto<T> {
+
+    @Schema(description = "Items of the current slice")
+    private final List<T> content;
+
+    @Schema(description = "Opaque token to pass as cursor for the next slice, absent on the last slice",
+            example = "MjAyNS0wOC0yM1QxMjozMDo0NVp8MTAx")
+    private final String nextCursor;
+
+    @Schema(description = "Whether another slice follows", example = "true")
+    private final boolean hasNext;
+
+    private CursorPageDto(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    public static <S, T> CursorPageDto<T> of(List<S> rows, int size, Function<S, T> mapper, Function<S, String> cursor) {
+        var hasNext = rows.size() > size;
+        var page = hasNext ? rows.subList(0, size) : rows;
+        var nextCursor = hasNext ? cursor.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageDto<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecom.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@Schema(description = "Outcome of a single order in a batch submission")
+public class OrderBatchItemDto {
+
+    @Schema(description = "Position of the order in the submitted batch", example = "0")
+    private int index;
+
+    @Schema(description = "Whether the order was created", example = "true")
+    private boolean success;
+
+    @Schema(description = "Created order, present when success is true")
+    private OrderDto order;
+
+    @Schema(description = "Reason of failure, present when success is false", example = "Not enough stock for product: Laptop")
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.ecom.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@Schema(description = "Result of a batch order submission")
+public class OrderBatchResultDto {
+
+    @Schema(description = "Number of created orders", example = "498")
+    private int succeeded;
+
+    @Schema(description = "Number of rejected orders", example = "2")
+    private int failed;
+
+    @Schema(description = "Per-order outcome in submission order")
+    private List<OrderBatchItemDto> results;
+}
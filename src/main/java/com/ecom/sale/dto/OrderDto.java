@@ -1,6 +1,7 @@
 package com.ecom.sale.dto;
 
 import com.ecom.sale.enums.OrderStatus;
+import com.ecom.sale.enums.PaymentStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
@@ -31,6 +32,9 @@ public class OrderDto {
     @Schema(description = "Time when the order was cancelled", example = "2025-08-24T15:10:20")
     private LocalDateTime cancelledAt;
 
+    @Schema(description = "Status of the order payment, absent when no payment was created", example = "PENDING")
+    private PaymentStatus paymentStatus;
+
     @Schema(description = "List of items in the order")
     private List<OrderItemDto> orderItems;
 }
@@ -0,0 +1,36 @@
+package com.ecom.sale.dto;
+
+import com.ecom.sale.enums.OrderStatus;
+import com.ecom.sale.enums.PaymentStatus;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+public class OrderEventDto {
+
+    private Long id;
+
+    private Long userId;
+
+    private OrderStatus status;
+
+    private BigDecimal totalAmount;
+
+    private PaymentStatus paymentStatus;
+
+    private Instant createdDate;
+
+    private LocalDateTime paidAt;
+
+    private LocalDateTime cancelledAt;
+
+    private List<OrderItemDto> orderItems;
+}
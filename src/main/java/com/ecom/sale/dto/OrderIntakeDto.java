@@ -0,0 +1,29 @@
+package com.ecom.sale.dto;
+
+import com.ecom.sale.enums.OrderIntakeStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@Schema(description = "State of an order accepted for asynchronous processing")
+public class OrderIntakeDto {
+
+    @Schema(description = "Identifier to poll the intake with", example = "3f1c2a9e-6d8b-4f5e-9a7c-2b1d0e4f6a8c")
+    private String intakeId;
+
+    @Schema(description = "Processing state", example = "CREATED")
+    private OrderIntakeStatus status;
+
+    @Schema(description = "Id of the created order, present when status is CREATED", example = "42")
+    private Long orderId;
+
+    @Schema(description = "Created order, present when status is CREATED")
+    private OrderDto order;
+
+    @Schema(description = "Reason of rejection, present when status is REJECTED", example = "Not enough stock for product: Laptop")
+    private String error;
+}
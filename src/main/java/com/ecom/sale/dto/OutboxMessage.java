@@ -0,0 +1,9 @@
+package com.ecom.sale.dto;
+
+import com.ecom.sale.enums.OutboxEventType;
+
+import java.time.Instant;
+
+public record OutboxMessage(long id, long transactionId, String aggregateType, Long aggregateId,
+                            OutboxEventType eventType, String payload, Instant createdDate) {
+}
@@ -30,5 +30,8 @@ public class ProductDto {
 
     @Schema(description = "Available stock quantity of the product", example = "50")
     private Integer quantity;
+
+    @Schema(description = "Version to send back as If-Match when updating the product", example = "3")
+    private Long version;
 }
 
@@ -0,0 +1,38 @@
+package com.ecom.sale.dto;
+
+import com.ecom.sale.enums.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@ToString
+@Schema(description = "Sales of one category on one day for orders in one status")
+public class SalesRollupDto {
+
+    @Schema(description = "Day the orders were created", example = "2025-08-23")
+    private LocalDate day;
+
+    @Schema(description = "Category identifier", example = "3")
+    private Long categoryId;
+
+    @Schema(description = "Category name", example = "Electronics")
+    private String categoryName;
+
+    @Schema(description = "Current status of the counted orders", example = "PAID")
+    private OrderStatus status;
+
+    @Schema(description = "Units sold", example = "42")
+    private Long units;
+
+    @Schema(description = "Sum of item totals", example = "2099.58")
+    private BigDecimal revenue;
+
+    @Schema(description = "Orders with at least one item of the category", example = "17")
+    private Long orderCount;
+}
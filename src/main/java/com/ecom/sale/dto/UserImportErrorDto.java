@@ -0,0 +1,20 @@
+package com.ecom.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Rejected row of a bulk user import")
+public class UserImportErrorDto {
+
+    @Schema(description = "Line number in the uploaded file", example = "42")
+    private final long line;
+
+    @Schema(description = "Username from the rejected row, if it could be read", example = "daniyal")
+    private final String username;
+
+    @Schema(description = "Reason the row was rejected", example = "Email already taken")
+    private final String message;
+}
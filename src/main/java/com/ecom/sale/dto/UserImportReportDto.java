@@ -0,0 +1,29 @@
+package com.ecom.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Schema(description = "Result of a bulk user import")
+public class UserImportReportDto {
+
+    @Schema(description = "Number of data rows read from the file", example = "10000")
+    private long total;
+
+    @Schema(description = "Number of users created", example = "9990")
+    private long imported;
+
+    @Schema(description = "Number of rejected rows", example = "10")
+    private long failed;
+
+    @Schema(description = "True when more rows failed than are listed in errors", example = "false")
+    private boolean errorsTruncated;
+
+    @Schema(description = "Rejected rows with the reason of rejection")
+    private List<UserImportErrorDto> errors = new ArrayList<>();
+}
@@ -0,0 +1,48 @@
+package com.ecom.sale.dto;
+
+import com.ecom.sale.model.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Getter
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final int tokenVersion;
+    private final Set<String> roles;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String username, String password, int tokenVersion, Collection<String> roles) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.tokenVersion = tokenVersion;
+        this.roles = Set.copyOf(roles);
+        this.authorities = this.roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getTokenVersion(),
+                user.getRoles().stream().map(com.ecom.sale.model.Role::getName).toList()
+        );
+    }
+
+    public boolean hasRole(String roleName) {
+        return roles.contains(roleName);
+    }
+}
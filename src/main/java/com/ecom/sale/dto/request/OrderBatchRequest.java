@@ -0,0 +1,18 @@
+package com.ecom.sale.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class OrderBatchRequest {
+
+    @Schema(description = "Orders to create, processed in the given order")
+    @NotEmpty(message = "Orders list must not be empty")
+    private List<OrderRequest> orders;
+
+}
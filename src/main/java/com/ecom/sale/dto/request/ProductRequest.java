@@ -33,5 +33,8 @@ public class ProductRequest {
     @NotNull(message = "Quantity is required")
     @Min(value = 0, message = "Quantity cannot be negative")
     private Integer quantity;
+
+    @Schema(description = "Version the update is based on, required on update unless sent as If-Match", example = "3")
+    private Long version;
 }
 
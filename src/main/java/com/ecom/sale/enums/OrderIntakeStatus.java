@@ -0,0 +1,7 @@
+package com.ecom.sale.enums;
+
+public enum OrderIntakeStatus {
+    QUEUED,
+    CREATED,
+    REJECTED
+}
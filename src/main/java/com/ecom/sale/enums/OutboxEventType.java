@@ -0,0 +1,13 @@
+package com.ecom.sale.enums;
+
+public enum OutboxEventType {
+    ORDER_CREATED,
+    ORDER_UPDATED,
+    ORDER_PAID,
+    ORDER_CANCELLED,
+    ORDER_EXPIRED,
+    ORDER_DELETED,
+    PAYMENT_CREATED,
+    PAYMENT_PAID,
+    PAYMENT_DELETED
+}
@@ -0,0 +1,12 @@
+package com.ecom.sale.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+public class ConflictException extends CustomException {
+
+    public ConflictException(String api, String message) {
+        super(api, HttpStatus.CONFLICT, message, LocalDateTime.now());
+    }
+}
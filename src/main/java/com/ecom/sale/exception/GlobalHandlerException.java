@@ -3,6 +3,8 @@ package com.ecom.sale.exception;
 
 import com.ecom.sale.dto.ErrorDto;
 import com.ecom.sale.util.ErrorUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -41,6 +43,30 @@ public class GlobalHandlerException {
                 .body(ErrorUtils.buildError(ex));
     }
 
+    @ExceptionHandler(ThrottledException.class)
+    public ResponseEntity<ErrorDto> handleThrottledException(ThrottledException ex) {
+        return ResponseEntity
+                .status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ErrorUtils.buildError(ex));
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorDto> handleConflictException(ConflictException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorUtils.buildError(ex));
+    }
+
+    // a concurrent write bumped the version between our read and the flush
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDto> handleOptimisticLockingFailure(WebRequest request, OptimisticLockingFailureException ex) {
+        var apiEx = new ConflictException(request.getContextPath(), "The resource was modified concurrently, reload it and try again");
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorUtils.buildError(apiEx));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDto> handleOtherExceptions(WebRequest request,Exception ex) {
         var apiEx = new CustomException(
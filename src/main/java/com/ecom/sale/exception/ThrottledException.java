@@ -0,0 +1,16 @@
+package com.ecom.sale.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class ThrottledException extends CustomException {
+    private final long retryAfterSeconds;
+
+    public ThrottledException(String api, HttpStatus status, String message, long retryAfterSeconds) {
+        super(api, status, message, LocalDateTime.now());
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
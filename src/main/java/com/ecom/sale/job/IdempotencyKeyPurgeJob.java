@@ -0,0 +1,40 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.util.IdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyPurgeJob {
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Value("${jobs.idempotency-key-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${jobs.idempotency-key-purge.max-batches:100}")
+    private int maxBatches;
+
+    @Scheduled(
+            initialDelayString = "${jobs.idempotency-key-purge.initial-delay:PT2M}",
+            fixedDelayString = "${jobs.idempotency-key-purge.interval:PT15M}"
+    )
+    public void purge() {
+        var total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            var deleted = idempotencyStore.purgeExpired(batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys", total);
+        }
+    }
+}
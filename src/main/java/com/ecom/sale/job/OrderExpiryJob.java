@@ -0,0 +1,63 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.repository.OrderRepository;
+import com.ecom.sale.service.InventoryService;
+import com.ecom.sale.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderExpiryJob {
+
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.reservation.ttl:PT30M}")
+    private Duration reservationTtl;
+
+    @Value("${jobs.order-expiry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${jobs.order-expiry.max-batches:50}")
+    private int maxBatches;
+
+    @Scheduled(
+            initialDelayString = "${jobs.order-expiry.initial-delay:PT1M}",
+            fixedDelayString = "${jobs.order-expiry.interval:PT1M}"
+    )
+    public void expire() {
+        var total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            var expired = transactionTemplate.execute(status -> expireBatch());
+            total += expired;
+            if (expired < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Cancelled {} unpaid orders older than {}", total, reservationTtl);
+        }
+    }
+
+    private int expireBatch() {
+        var ids = orderRepository.lockExpiredNewOrderIds(reservationTtl.toSeconds(), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        inventoryService.releaseForOrders(ids);
+        orderRepository.markCancelled(ids);
+        outboxService.recordOrders(OutboxEventType.ORDER_EXPIRED, orderRepository.findWithItemsByIdIn(ids));
+        return ids.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.util.OrderIntakeStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderIntakePurgeJob {
+
+    private final OrderIntakeStore orderIntakeStore;
+
+    @Value("${order.intake.result-ttl:PT10M}")
+    private Duration resultTtl;
+
+    @Value("${jobs.order-intake-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${jobs.order-intake-purge.max-batches:100}")
+    private int maxBatches;
+
+    @Scheduled(
+            initialDelayString = "${jobs.order-intake-purge.initial-delay:PT2M}",
+            fixedDelayString = "${jobs.order-intake-purge.interval:PT5M}"
+    )
+    public void purge() {
+        var total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            var deleted = orderIntakeStore.purgeResolved(resultTtl, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} order intakes resolved more than {} ago", total, resultTtl);
+        }
+    }
+}
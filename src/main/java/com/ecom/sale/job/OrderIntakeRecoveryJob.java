@@ -0,0 +1,35 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.service.impl.OrderIntakeQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderIntakeRecoveryJob {
+
+    private final OrderIntakeQueue orderIntakeQueue;
+
+    @Value("${jobs.order-intake-recovery.stale-after:PT1M}")
+    private Duration staleAfter;
+
+    @Value("${jobs.order-intake-recovery.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(
+            initialDelayString = "${jobs.order-intake-recovery.initial-delay:PT30S}",
+            fixedDelayString = "${jobs.order-intake-recovery.interval:PT30S}"
+    )
+    public void recover() {
+        var recovered = orderIntakeQueue.recover(staleAfter, batchSize);
+        if (recovered > 0) {
+            log.info("Queued again {} order intakes left unprocessed for {}", recovered, staleAfter);
+        }
+    }
+}
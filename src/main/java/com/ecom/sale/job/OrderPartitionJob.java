@@ -0,0 +1,110 @@
+package com.ecom.sale.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderPartitionJob {
+
+    // order_items before orders: an orders partition only detaches once nothing attached still references it
+    private static final List<String> PARTITIONED_TABLES = List.of("order_items", "orders");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final long ADVISORY_LOCK_KEY = 0x6f72646572L;
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('(\\d{4}-\\d{2}-\\d{2})[^']*'\\)");
+
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = ?::regclass""";
+
+    private static final String LIST_FOREIGN_KEYS = """
+            SELECT conname FROM pg_constraint WHERE conrelid = ?::regclass AND contype = 'f'""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${jobs.order-partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${jobs.order-partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Scheduled(
+            initialDelayString = "${jobs.order-partitions.initial-delay:PT1M}",
+            fixedDelayString = "${jobs.order-partitions.interval:PT6H}"
+    )
+    public void maintain() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY))) {
+                log.debug("Order partition maintenance is running elsewhere");
+                return;
+            }
+            var current = YearMonth.now();
+            for (var table : PARTITIONED_TABLES) {
+                createAhead(table, current);
+                if (retentionMonths > 0) {
+                    detachBefore(table, current.minusMonths(retentionMonths));
+                }
+            }
+        });
+    }
+
+    // the current month is skipped: it is covered either by an earlier run or by the legacy partition
+    private void createAhead(String table, YearMonth current) {
+        for (int i = 1; i <= monthsAhead; i++) {
+            var month = current.plusMonths(i);
+            var name = table + "_p" + month.format(SUFFIX);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + table
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    /*
+     * Any partition whose range ends before the oldest kept month goes, the legacy one bounded FROM (MINVALUE)
+     * included once the cutoff has passed it. Detached partitions are kept as plain tables so they can be archived
+     * before anyone drops them; their foreign keys are dropped so they neither pin nor check live rows.
+     */
+    private void detachBefore(String table, YearMonth oldestKept) {
+        var cutoff = oldestKept.atDay(1);
+        jdbcTemplate.query(LIST_PARTITIONS, (rs, rowNum) -> Map.entry(rs.getString(1), rs.getString(2)), table)
+                .forEach(partition -> {
+                    var upper = UPPER_BOUND.matcher(partition.getValue());
+                    if (!upper.find() || LocalDate.parse(upper.group(1)).isAfter(cutoff)) {
+                        return;
+                    }
+                    // the transaction manager offers no savepoints, so a refused detach is rolled back by hand
+                    jdbcTemplate.execute("SAVEPOINT detach_partition");
+                    try {
+                        detach(table, partition.getKey());
+                        jdbcTemplate.execute("RELEASE SAVEPOINT detach_partition");
+                        log.info("Detached partition {} from {}", partition.getKey(), table);
+                    } catch (DataIntegrityViolationException e) {
+                        jdbcTemplate.execute("ROLLBACK TO SAVEPOINT detach_partition");
+                        log.warn("Partition {} of {} is still referenced, keeping it attached", partition.getKey(), table);
+                    }
+                });
+    }
+
+    private void detach(String table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+        for (var foreignKey : jdbcTemplate.queryForList(LIST_FOREIGN_KEYS, String.class, partition)) {
+            jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT " + foreignKey);
+        }
+    }
+}
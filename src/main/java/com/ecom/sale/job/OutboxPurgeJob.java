@@ -0,0 +1,49 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.service.OutboxSubscriber;
+import com.ecom.sale.util.OutboxStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxPurgeJob {
+
+    private final OutboxStore outboxStore;
+    private final List<OutboxSubscriber> subscribers;
+
+    @Value("${jobs.outbox-purge.retention:P7D}")
+    private Duration retention;
+
+    @Value("${jobs.outbox-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${jobs.outbox-purge.max-batches:100}")
+    private int maxBatches;
+
+    @Scheduled(
+            initialDelayString = "${jobs.outbox-purge.initial-delay:PT5M}",
+            fixedDelayString = "${jobs.outbox-purge.interval:PT1H}"
+    )
+    public void purge() {
+        var consumers = subscribers.stream().map(OutboxSubscriber::name).toList();
+        var total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            var deleted = outboxStore.purgeConsumed(consumers, retention, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} delivered outbox events older than {}", total, retention);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.service.OutboxSubscriber;
+import com.ecom.sale.util.OutboxStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelayJob {
+
+    private final OutboxStore outboxStore;
+    private final List<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jobs.outbox-relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${jobs.outbox-relay.max-batches:20}")
+    private int maxBatches;
+
+    @Scheduled(
+            initialDelayString = "${jobs.outbox-relay.initial-delay:PT10S}",
+            fixedDelayString = "${jobs.outbox-relay.interval:PT1S}"
+    )
+    public void relay() {
+        for (var subscriber : subscribers) {
+            try {
+                relay(subscriber);
+            } catch (RuntimeException e) {
+                // the checkpoint did not move, so the same batch is offered again on the next run
+                counter("outbox.relay.failures", subscriber).increment();
+                log.error("Outbox subscriber {} failed, will retry", subscriber.name(), e);
+            }
+        }
+    }
+
+    private void relay(OutboxSubscriber subscriber) {
+        for (int batch = 0; batch < maxBatches; batch++) {
+            var delivered = transactionTemplate.execute(status -> deliverBatch(subscriber));
+            if (delivered < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // the checkpoint row lock keeps other instances off this subscriber until the batch commits
+    private int deliverBatch(OutboxSubscriber subscriber) {
+        var checkpoint = outboxStore.lockCheckpoint(subscriber.name());
+        if (checkpoint.isEmpty()) {
+            return 0;
+        }
+        var events = outboxStore.fetch(checkpoint.get(), batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        subscriber.onEvents(events);
+        var last = events.get(events.size() - 1);
+        outboxStore.advance(subscriber.name(), last);
+
+        counter("outbox.relay.delivered", subscriber).increment(events.size());
+        Timer.builder("outbox.relay.lag")
+                .tag("subscriber", subscriber.name())
+                .register(meterRegistry)
+                .record(Duration.between(last.createdDate(), Instant.now()));
+        log.debug("Delivered {} outbox events to {}, last id={}", events.size(), subscriber.name(), last.id());
+        return events.size();
+    }
+
+    private Counter counter(String name, OutboxSubscriber subscriber) {
+        return Counter.builder(name)
+                .tag("subscriber", subscriber.name())
+                .register(meterRegistry);
+    }
+}
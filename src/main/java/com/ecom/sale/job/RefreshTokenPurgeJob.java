@@ -0,0 +1,43 @@
+package com.ecom.sale.job;
+
+import com.ecom.sale.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jobs.refresh-token-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${jobs.refresh-token-purge.max-batches:100}")
+    private int maxBatches;
+
+    @Scheduled(
+            initialDelayString = "${jobs.refresh-token-purge.initial-delay:PT1M}",
+            fixedDelayString = "${jobs.refresh-token-purge.interval:PT10M}"
+    )
+    public void purge() {
+        var now = LocalDateTime.now();
+        var total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            var deleted = refreshTokenRepository.deleteExpiredOrRevoked(now, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} expired or revoked refresh tokens", total);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ecom.sale.mapper;
 
 import com.ecom.sale.dto.OrderItemDto;
 import com.ecom.sale.model.OrderItem;
+import com.ecom.sale.repository.projection.OrderItemView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -10,4 +11,6 @@ public interface OrderItemMapper {
 
     @Mapping(target = "productId", source = "product.id")
     OrderItemDto toDto(OrderItem orderItem);
+
+    OrderItemDto toDto(OrderItemView orderItem);
 }
@@ -1,11 +1,25 @@
 package com.ecom.sale.mapper;
 
 import com.ecom.sale.dto.OrderDto;
+import com.ecom.sale.dto.OrderEventDto;
 import com.ecom.sale.model.Order;
+import com.ecom.sale.repository.projection.OrderItemView;
+import com.ecom.sale.repository.projection.OrderSummaryView;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
 
 @Mapper(componentModel = "spring", uses = {OrderItemMapper.class})
 public interface OrderMapper {
 
+    @Mapping(target = "paymentStatus", source = "payment.paymentStatus")
     OrderDto toDto(Order order);
-}
\ No newline at end of file
+
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "paymentStatus", source = "payment.paymentStatus")
+    OrderEventDto toEventDto(Order order);
+
+    @Mapping(target = "orderItems", source = "items")
+    OrderDto toDto(OrderSummaryView order, List<OrderItemView> items);
+}
@@ -9,5 +9,6 @@ import org.mapstruct.Mapping;
 public interface ProductMapper {
 
     @Mapping(target = "categoryName", source = "category.name")
+    @Mapping(target = "quantity", source = "availableQuantity")
     ProductDto toDto(Product product);
 }
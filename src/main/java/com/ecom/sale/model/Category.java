@@ -15,7 +15,7 @@ public class Category extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "category_seq_gen",
             sequenceName = "category_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
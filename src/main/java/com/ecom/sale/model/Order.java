@@ -20,7 +20,7 @@ public class Order extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "order_seq_gen",
             sequenceName = "order_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
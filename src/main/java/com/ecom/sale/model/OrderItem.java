@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -17,7 +18,7 @@ public class OrderItem extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "order_item_seq_gen",
             sequenceName = "order_item_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -29,6 +30,10 @@ public class OrderItem extends AbstractAuditingEntity {
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    // the order's partition key, which the foreign key to the partitioned orders table has to include
+    @Column(name = "order_created_date", nullable = false, updatable = false)
+    private Instant orderCreatedDate;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
@@ -42,4 +47,8 @@ public class OrderItem extends AbstractAuditingEntity {
     @Column(name = "total_price", nullable = false)
     private BigDecimal totalPrice;
 
+    @PrePersist
+    void copyOrderCreatedDate() {
+        orderCreatedDate = order.getCreatedDate();
+    }
 }
@@ -0,0 +1,39 @@
+package com.ecom.sale.model;
+
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.model.audit.AbstractAuditingEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent extends AbstractAuditingEntity {
+
+    @Id
+    @SequenceGenerator(
+            name = "outbox_event_seq_gen",
+            sequenceName = "outbox_event_seq_gen",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "outbox_event_seq_gen"
+    )
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    @Column(name = "payload", nullable = false)
+    private String payload;
+}
@@ -9,6 +9,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -21,7 +22,7 @@ public class Payment extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "payment_seq_gen",
             sequenceName = "payment_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -33,6 +34,10 @@ public class Payment extends AbstractAuditingEntity {
     @JoinColumn(name = "order_id", nullable = false, unique = true)
     private Order order;
 
+    // the order's partition key, which the foreign key to the partitioned orders table has to include
+    @Column(name = "order_created_date", nullable = false, updatable = false)
+    private Instant orderCreatedDate;
+
     @Column(name = "payment_method", nullable = false)
     @Enumerated(EnumType.STRING)
     private PaymentMethod paymentMethod;
@@ -47,4 +52,8 @@ public class Payment extends AbstractAuditingEntity {
     @Column(name = "transaction_id", nullable = false, unique = true)
     private String transactionId;
 
+    @PrePersist
+    void copyOrderCreatedDate() {
+        orderCreatedDate = order.getCreatedDate();
+    }
 }
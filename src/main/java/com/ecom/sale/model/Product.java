@@ -4,6 +4,7 @@ import com.ecom.sale.model.audit.AbstractAuditingEntity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 
@@ -17,7 +18,7 @@ public class Product extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "product_seq_gen",
             sequenceName = "product_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -41,4 +42,22 @@ public class Product extends AbstractAuditingEntity {
     @Column(name = "quantity", nullable = false)
     private Integer quantity = 0;
 
+    @Column(name = "stock_buckets", nullable = false)
+    private Integer stockBuckets = 0;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    @Formula("(CASE WHEN stock_buckets > 0 THEN "
+            + "(SELECT COALESCE(SUM(b.quantity), 0) FROM product_stock_buckets b WHERE b.product_id = id) END)")
+    private Integer bucketQuantity;
+
+    public boolean isHot() {
+        return stockBuckets > 0;
+    }
+
+    public int getAvailableQuantity() {
+        return bucketQuantity != null ? quantity + bucketQuantity : quantity;
+    }
 }
@@ -17,7 +17,7 @@ public class RefreshToken extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "token_seq_gen",
             sequenceName = "token_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -25,8 +25,8 @@ public class RefreshToken extends AbstractAuditingEntity {
     )
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
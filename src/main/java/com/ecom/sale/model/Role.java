@@ -15,7 +15,7 @@ public class Role extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "role_seq_gen",
             sequenceName = "role_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
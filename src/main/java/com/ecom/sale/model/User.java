@@ -19,7 +19,7 @@ public class User extends AbstractAuditingEntity {
     @SequenceGenerator(
             name = "user_seq_gen",
             sequenceName = "user_seq_gen",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -42,6 +42,9 @@ public class User extends AbstractAuditingEntity {
     @Column(name = "bio")
     private String bio;
 
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "user_roles",
@@ -18,7 +18,7 @@ import java.time.Instant;
 public class AbstractAuditingEntity {
 
     @CreatedDate
-    @Column(name = "created_date", nullable = false)
+    @Column(name = "created_date", nullable = false, updatable = false)
     private Instant createdDate;
 
     @LastModifiedDate
@@ -1,11 +1,16 @@
 package com.ecom.sale.repository;
 
 import com.ecom.sale.model.OrderItem;
+import com.ecom.sale.repository.projection.OrderItemView;
 import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -14,4 +19,13 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
 
     List<OrderItem> findByProduct_Id(Long productId);
 
+    @Query("""
+            select new com.ecom.sale.repository.projection.OrderItemView(
+                i.order.id, i.id, i.product.id, i.quantity, i.unitPrice, i.totalPrice)
+            from OrderItem i
+            where i.order.id in :orderIds and i.createdDate >= :since
+            order by i.id
+            """)
+    List<OrderItemView> findViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                                            @Param("since") Instant since);
 }
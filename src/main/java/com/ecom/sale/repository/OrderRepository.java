@@ -1,15 +1,110 @@
 package com.ecom.sale.repository;
 
 import com.ecom.sale.model.Order;
+import com.ecom.sale.repository.projection.OrderSummaryView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Page<Order> findAllByUser_Id(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"orderItems", "payment"})
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = {"orderItems", "payment"})
+    List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+    @Query(value = """
+            select new com.ecom.sale.repository.projection.OrderSummaryView(
+                o.id, o.status, o.totalAmount, o.paidAt, o.cancelledAt, p.paymentStatus, o.createdDate)
+            from Order o left join o.payment p
+            """,
+            countQuery = "select count(o) from Order o")
+    Page<OrderSummaryView> findSummaries(Pageable pageable);
+
+    @Query(value = """
+            select new com.ecom.sale.repository.projection.OrderSummaryView(
+                o.id, o.status, o.totalAmount, o.paidAt, o.cancelledAt, p.paymentStatus, o.createdDate)
+            from Order o left join o.payment p
+            where o.user.id = :userId
+            """,
+            countQuery = "select count(o) from Order o where o.user.id = :userId")
+    Page<OrderSummaryView> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("""
+            select new com.ecom.sale.repository.projection.OrderSummaryView(
+                o.id, o.status, o.totalAmount, o.paidAt, o.cancelledAt, p.paymentStatus, o.createdDate)
+            from Order o left join o.payment p
+            order by o.createdDate desc, o.id desc
+            """)
+    List<OrderSummaryView> findSummariesFirst(Limit limit);
+
+    @Query("""
+            select new com.ecom.sale.repository.projection.OrderSummaryView(
+                o.id, o.status, o.totalAmount, o.paidAt, o.cancelledAt, p.paymentStatus, o.createdDate)
+            from Order o left join o.payment p
+            where o.createdDate <= :createdDate and (o.createdDate, o.id) < (:createdDate, :id)
+            order by o.createdDate desc, o.id desc
+            """)
+    List<OrderSummaryView> findSummariesAfter(@Param("createdDate") Instant createdDate,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    @Query("""
+            select new com.ecom.sale.repository.projection.OrderSummaryView(
+                o.id, o.status, o.totalAmount, o.paidAt, o.cancelledAt, p.paymentStatus, o.createdDate)
+            from Order o left join o.payment p
+            where o.user.id = :userId
+            order by o.createdDate desc, o.id desc
+            """)
+    List<OrderSummaryView> findSummariesByUserIdFirst(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+            select new com.ecom.sale.repository.projection.OrderSummaryView(
+                o.id, o.status, o.totalAmount, o.paidAt, o.cancelledAt, p.paymentStatus, o.createdDate)
+            from Order o left join o.payment p
+            where o.user.id = :userId and o.createdDate <= :createdDate
+              and (o.createdDate, o.id) < (:createdDate, :id)
+            order by o.createdDate desc, o.id desc
+            """)
+    List<OrderSummaryView> findSummariesByUserIdAfter(@Param("userId") Long userId,
+                                                      @Param("createdDate") Instant createdDate,
+                                                      @Param("id") Long id,
+                                                      Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    @Query(value = """
+            SELECT id FROM orders
+            WHERE status = 'NEW' AND created_date < LOCALTIMESTAMP - make_interval(secs => :ttlSeconds)
+            ORDER BY created_date
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockExpiredNewOrderIds(@Param("ttlSeconds") long ttlSeconds, @Param("batchSize") int batchSize);
 
+    @Modifying
+    @Query(value = """
+            UPDATE orders SET status = 'CANCELLED', cancelled_at = LOCALTIMESTAMP, updated_date = LOCALTIMESTAMP
+            WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int markCancelled(@Param("ids") List<Long> ids);
 }
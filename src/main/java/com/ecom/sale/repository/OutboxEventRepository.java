@@ -0,0 +1,9 @@
+package com.ecom.sale.repository;
+
+import com.ecom.sale.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
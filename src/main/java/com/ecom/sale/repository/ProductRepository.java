@@ -1,12 +1,19 @@
 package com.ecom.sale.repository;
 
 import com.ecom.sale.model.Product;
+import com.ecom.sale.repository.projection.StockBucketView;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
@@ -16,4 +23,128 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     List<Product> findAllByCategory_Id(Long id);
 
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1 "
+            + "where p.id = :id and p.quantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.version = p.version + 1 "
+            + "where p.id = :id and p.stockBuckets = 0")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // bumps the version on flush even when nothing else changed, so a concurrent stock change fails the commit
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForVersionedWrite(@Param("id") Long id);
+
+    @Query(value = "SELECT id FROM products WHERE id IN (:ids) AND stock_buckets = 0 ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockStockRows(@Param("ids") List<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE product_stock_buckets SET quantity = quantity - :quantity
+            WHERE product_id = :productId AND bucket_no = :bucketNo AND quantity >= :quantity
+            """, nativeQuery = true)
+    int reserveFromBucket(@Param("productId") Long productId,
+                          @Param("bucketNo") int bucketNo,
+                          @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE product_stock_buckets SET quantity = quantity + :quantity
+            WHERE product_id = :productId AND bucket_no = :bucketNo
+            """, nativeQuery = true)
+    int returnToBucket(@Param("productId") Long productId,
+                       @Param("bucketNo") int bucketNo,
+                       @Param("quantity") int quantity);
+
+    @Query(value = """
+            SELECT bucket_no AS bucketNo, quantity FROM product_stock_buckets
+            WHERE product_id = :productId AND quantity > 0
+            ORDER BY bucket_no
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StockBucketView> lockAvailableBuckets(@Param("productId") Long productId);
+
+    @Query(value = """
+            SELECT bucket_no AS bucketNo, quantity FROM product_stock_buckets
+            WHERE product_id = :productId AND quantity > 0
+            ORDER BY bucket_no
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<StockBucketView> waitForAvailableBuckets(@Param("productId") Long productId);
+
+    @Query(value = "SELECT current_setting('lock_timeout')", nativeQuery = true)
+    String currentLockTimeout();
+
+    @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String setLocalLockTimeout(@Param("timeout") String timeout);
+
+    @Query(value = """
+            SELECT bucket_no AS bucketNo, quantity FROM product_stock_buckets
+            WHERE product_id = :productId
+            ORDER BY bucket_no
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<StockBucketView> lockAllBuckets(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE product_stock_buckets SET quantity = quantity + :quantity
+            WHERE product_id = :productId
+              AND bucket_no = mod(:seed, NULLIF((SELECT p.stock_buckets FROM products p WHERE p.id = :productId), 0))
+            """, nativeQuery = true)
+    int releaseToBucket(@Param("productId") Long productId,
+                        @Param("seed") int seed,
+                        @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO product_stock_buckets (product_id, bucket_no, quantity) VALUES (:productId, :bucketNo, :quantity)",
+            nativeQuery = true)
+    void insertBucket(@Param("productId") Long productId,
+                      @Param("bucketNo") int bucketNo,
+                      @Param("quantity") int quantity);
+
+    @Modifying
+    @Query(value = """
+            WITH s AS MATERIALIZED (
+                SELECT product_id, SUM(quantity) AS quantity FROM order_items
+                WHERE order_id IN (:orderIds) GROUP BY product_id
+            ), locked AS MATERIALIZED (
+                SELECT p.id FROM products p JOIN s ON s.product_id = p.id
+                WHERE p.stock_buckets = 0
+                ORDER BY p.id
+                FOR UPDATE OF p
+            )
+            UPDATE products p SET quantity = p.quantity + s.quantity, version = p.version + 1
+            FROM s JOIN locked l ON l.id = s.product_id
+            WHERE p.id = l.id
+            """, nativeQuery = true)
+    int releaseStockForOrders(@Param("orderIds") List<Long> orderIds);
+
+    @Modifying
+    @Query(value = """
+            WITH s AS MATERIALIZED (
+                SELECT i.product_id, SUM(i.quantity) AS quantity, floor(random() * p.stock_buckets)::int AS bucket_no
+                FROM order_items i JOIN products p ON p.id = i.product_id
+                WHERE i.order_id IN (:orderIds) AND p.stock_buckets > 0
+                GROUP BY i.product_id, p.stock_buckets
+            ), locked AS MATERIALIZED (
+                SELECT b.product_id, b.bucket_no FROM product_stock_buckets b
+                JOIN s ON s.product_id = b.product_id AND s.bucket_no = b.bucket_no
+                ORDER BY b.product_id, b.bucket_no
+                FOR UPDATE OF b
+            )
+            UPDATE product_stock_buckets b SET quantity = b.quantity + s.quantity
+            FROM s JOIN locked l ON l.product_id = s.product_id AND l.bucket_no = s.bucket_no
+            WHERE b.product_id = l.product_id AND b.bucket_no = l.bucket_no
+            """, nativeQuery = true)
+    int releaseBucketStockForOrders(@Param("orderIds") List<Long> orderIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM product_stock_buckets WHERE product_id = :productId", nativeQuery = true)
+    void deleteBuckets(@Param("productId") Long productId);
+
 }
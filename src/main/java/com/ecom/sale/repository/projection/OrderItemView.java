@@ -0,0 +1,13 @@
+package com.ecom.sale.repository.projection;
+
+import java.math.BigDecimal;
+
+public record OrderItemView(
+        Long orderId,
+        Long id,
+        Long productId,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal totalPrice
+) {
+}
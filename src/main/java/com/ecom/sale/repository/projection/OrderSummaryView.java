@@ -0,0 +1,19 @@
+package com.ecom.sale.repository.projection;
+
+import com.ecom.sale.enums.OrderStatus;
+import com.ecom.sale.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+public record OrderSummaryView(
+        Long id,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        LocalDateTime paidAt,
+        LocalDateTime cancelledAt,
+        PaymentStatus paymentStatus,
+        Instant createdDate
+) {
+}
@@ -0,0 +1,8 @@
+package com.ecom.sale.repository.projection;
+
+public interface StockBucketView {
+
+    Integer getBucketNo();
+
+    Integer getQuantity();
+}
@@ -42,4 +42,9 @@ public class ProductSpecification {
         return (root, query, cb) ->
                 cb.lessThanOrEqualTo(root.get("quantity"), quantity);
     }
+
+    public static Specification<Product> hasIdAfter(Long id) {
+        return (root, query, cb) ->
+                cb.greaterThan(root.get("id"), id);
+    }
 }
@@ -25,4 +25,9 @@ public class UserSpecification {
         return ((root, query, cb) ->
                 cb.equal(root.get("role"), role));
     }
+
+    public static Specification<User> hasIdAfter(Long id) {
+        return (root, query, cb) ->
+                cb.greaterThan(root.get("id"), id);
+    }
 }
@@ -67,6 +67,13 @@ public class ProductSpecificationBuilder {
         return this;
     }
 
+    public ProductSpecificationBuilder withIdAfter(Long id) {
+        if (id != null) {
+            spec = append(spec, ProductSpecification.hasIdAfter(id));
+        }
+        return this;
+    }
+
     public Specification<Product> build() {
         validatePriceRange();
         validateQuantityRange();
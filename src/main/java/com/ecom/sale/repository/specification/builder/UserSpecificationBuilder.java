@@ -37,6 +37,13 @@ public class UserSpecificationBuilder {
         return this;
     }
 
+    public UserSpecificationBuilder withIdAfter(Long id) {
+        if (id != null) {
+            spec = append(spec, UserSpecification.hasIdAfter(id));
+        }
+        return this;
+    }
+
     public Specification<User> build() {
         return spec;
     }
@@ -0,0 +1,28 @@
+package com.ecom.sale.service;
+
+import com.ecom.sale.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryService {
+
+    void reserve(Product product, int quantity);
+
+    boolean tryReserve(Product product, int quantity);
+
+    void reserveAll(Map<Long, Product> productsById, Map<Long, Integer> quantitiesByProductId);
+
+    void adjustAll(Map<Long, Product> productsById, Map<Long, Integer> deltasByProductId);
+
+    void lockStock(Collection<Product> products);
+
+    void release(Map<Long, Integer> quantitiesByProductId);
+
+    void releaseForOrders(List<Long> orderIds);
+
+    void configureBuckets(Product product, int buckets);
+
+    void setStock(Product product, int quantity);
+}
@@ -0,0 +1,14 @@
+package com.ecom.sale.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public interface OrderExportService {
+
+    Export exportOrders(LocalDateTime from, LocalDateTime to, String format, boolean gzip);
+
+    record Export(String contentType, String fileName, Duration timeout, StreamingResponseBody body) {
+    }
+}
@@ -1,6 +1,10 @@
 package com.ecom.sale.service;
 
+import com.ecom.sale.dto.CursorPageDto;
+import com.ecom.sale.dto.OrderBatchResultDto;
 import com.ecom.sale.dto.OrderDto;
+import com.ecom.sale.dto.OrderIntakeDto;
+import com.ecom.sale.dto.request.OrderBatchRequest;
 import com.ecom.sale.dto.request.OrderRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +13,12 @@ public interface OrderService {
 
     OrderDto createOrder(OrderRequest request);
 
+    OrderBatchResultDto createOrders(OrderBatchRequest request);
+
+    OrderIntakeDto submitOrder(OrderRequest request);
+
+    OrderIntakeDto getOrderIntake(String intakeId);
+
     OrderDto updateOrder(Long orderId, OrderRequest request);
 
     void deleteOrder(Long orderId);
@@ -17,6 +27,8 @@ public interface OrderService {
 
     Page<OrderDto> getOrders(Pageable pageable);
 
+    CursorPageDto<OrderDto> scrollOrders(String cursor, int size);
+
     void cancelOrder(Long orderId);
 
 }
@@ -0,0 +1,16 @@
+package com.ecom.sale.service;
+
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.model.Order;
+import com.ecom.sale.model.Payment;
+
+import java.util.Collection;
+
+public interface OutboxService {
+
+    void record(OutboxEventType type, Order order);
+
+    void record(OutboxEventType type, Payment payment);
+
+    void recordOrders(OutboxEventType type, Collection<Order> orders);
+}
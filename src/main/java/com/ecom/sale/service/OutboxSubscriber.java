@@ -0,0 +1,17 @@
+package com.ecom.sale.service;
+
+import com.ecom.sale.dto.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Receives outbox events in commit-safe order. Each batch is delivered inside the transaction
+ * that advances the subscriber's checkpoint, so database writes made here are applied exactly once;
+ * throwing rolls the batch back and it is delivered again on the next relay run.
+ */
+public interface OutboxSubscriber {
+
+    String name();
+
+    void onEvents(List<OutboxMessage> events);
+}
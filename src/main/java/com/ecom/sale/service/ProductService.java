@@ -1,5 +1,6 @@
 package com.ecom.sale.service;
 
+import com.ecom.sale.dto.CursorPageDto;
 import com.ecom.sale.dto.ProductDto;
 import com.ecom.sale.dto.ProductSearchCriteria;
 import com.ecom.sale.dto.request.ProductRequest;
@@ -10,11 +11,15 @@ public interface ProductService {
 
     ProductDto createProduct(ProductRequest request);
 
-    ProductDto updateProduct(Long id, ProductRequest request);
+    ProductDto updateProduct(Long id, ProductRequest request, String ifMatch);
+
+    ProductDto configureStockBuckets(Long id, int buckets);
 
     void deleteProduct(Long id);
 
     ProductDto getProduct(Long id);
 
     Page<ProductDto> getAllProducts(ProductSearchCriteria criteria, Pageable pageable);
+
+    CursorPageDto<ProductDto> scrollProducts(ProductSearchCriteria criteria, String cursor, int size);
 }
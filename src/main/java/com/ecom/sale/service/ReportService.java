@@ -0,0 +1,15 @@
+package com.ecom.sale.service;
+
+import com.ecom.sale.dto.CategorySalesDto;
+import com.ecom.sale.dto.SalesRollupDto;
+import com.ecom.sale.enums.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReportService {
+
+    List<SalesRollupDto> getDailySales(LocalDate from, LocalDate to, OrderStatus status, Long categoryId);
+
+    List<CategorySalesDto> getCategorySales(LocalDate from, LocalDate to, OrderStatus status);
+}
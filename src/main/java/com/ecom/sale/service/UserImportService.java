@@ -0,0 +1,10 @@
+package com.ecom.sale.service;
+
+import com.ecom.sale.dto.UserImportReportDto;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    UserImportReportDto importUsers(InputStream input, String contentType);
+}
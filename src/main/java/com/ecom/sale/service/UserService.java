@@ -1,5 +1,6 @@
 package com.ecom.sale.service;
 
+import com.ecom.sale.dto.CursorPageDto;
 import com.ecom.sale.dto.UserDto;
 import com.ecom.sale.dto.UserSearchCriteria;
 import com.ecom.sale.dto.request.UserUpdateRequest;
@@ -12,6 +13,8 @@ public interface UserService {
 
     Page<UserDto> searchUser(UserSearchCriteria criteria, Pageable pageable);
 
+    CursorPageDto<UserDto> scrollUsers(UserSearchCriteria criteria, String cursor, int size);
+
     UserDto updateUser(Long id, UserUpdateRequest request);
 
     void deleteUser(Long id);
@@ -1,6 +1,7 @@
 package com.ecom.sale.service.impl;
 
 import com.ecom.sale.dto.AuthDto;
+import com.ecom.sale.dto.UserPrincipal;
 import com.ecom.sale.dto.request.ChangePasswordRequest;
 import com.ecom.sale.dto.request.LoginRequest;
 import com.ecom.sale.dto.request.RefreshTokenRequest;
@@ -13,8 +14,14 @@ import com.ecom.sale.repository.RefreshTokenRepository;
 import com.ecom.sale.repository.RoleRepository;
 import com.ecom.sale.repository.UserRepository;
 import com.ecom.sale.service.AuthService;
+import com.ecom.sale.util.HashUtils;
 import com.ecom.sale.util.JwtUtils;
+import com.ecom.sale.util.RevokedTokenFilter;
 import com.ecom.sale.util.SecurityUtils;
+import com.ecom.sale.util.TokenVersionRegistry;
+import com.ecom.sale.util.TransactionUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,7 +30,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,6 +49,9 @@ public class AuthServiceImpl implements AuthService {
     private final JwtUtils jwtUtils;
     private final SecurityUtils securityUtils;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CustomUserDetailService userDetailService;
+    private final RevokedTokenFilter revokedTokenFilter;
 
     @Value("${jwt.refresh.expiration}")
     private long refreshTokenExpirationInMs;
@@ -58,7 +67,7 @@ public class AuthServiceImpl implements AuthService {
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
             );
 
-            var userDetails = (UserDetails) authentication.getPrincipal();
+            var userDetails = (UserPrincipal) authentication.getPrincipal();
             var accessToken = jwtUtils.generateAccessToken(userDetails);
             var refreshToken = createAndSaveRefreshToken(userDetails);
 
@@ -106,38 +115,40 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public AuthDto refreshToken(RefreshTokenRequest request) {
-        log.info("Refreshing token for provided refresh token: {}", request.getRefreshToken());
-        var storedToken = refreshTokenRepository.findByToken(request.getRefreshToken())
+        log.info("Refreshing tokens for provided refresh token");
+        var claims = parseRefreshToken(request.getRefreshToken());
+        var expiresAt = claims.getExpiration().getTime();
+        var tokenHash = HashUtils.sha256Hex(request.getRefreshToken());
+
+        if (revokedTokenFilter.isRevoked(tokenHash)) {
+            log.error("Refresh token is already revoked for user {}", claims.getSubject());
+            throwException(HttpStatus.UNAUTHORIZED, "Refresh token is revoked or expired");
+        }
+
+        var storedToken = refreshTokenRepository.findByTokenHash(tokenHash)
                 .orElseThrow(() -> {
-                    log.error("Refresh token not found or invalid: {}", request.getRefreshToken());
+                    log.error("Refresh token not found for user {}", claims.getSubject());
+                    revokedTokenFilter.revoke(tokenHash, expiresAt);
                     return exception(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
                 });
 
         if (storedToken.isRevoked() || storedToken.getExpiryDate().isBefore(now())) {
-            log.error("Refresh token is revoked or expired: {}", storedToken.getToken());
+            log.error("Refresh token is revoked or expired: id={}", storedToken.getId());
+            revokedTokenFilter.revoke(tokenHash, expiresAt);
             throwException(HttpStatus.UNAUTHORIZED, "Refresh token is revoked or expired");
         }
 
-        var userDetails = userRepository.findByUsername(jwtUtils.extractUsername(request.getRefreshToken(), true))
-                .map(user -> new org.springframework.security.core.userdetails.User(
-                        user.getUsername(),
-                        user.getPassword(),
-                        user.getRoles().stream()
-                                .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority(role.getName()))
-                                .toList()))
-                .orElseThrow(() -> {
-                    log.error("User not found while refreshing token");
-                    return exception(HttpStatus.NOT_FOUND, "User not found");
-                });
-
-        if (!jwtUtils.isTokenValid(request.getRefreshToken(), userDetails, true)) {
-            log.error("Provided refresh token is invalid for user {}", userDetails.getUsername());
+        var user = storedToken.getUser();
+        if (!user.getUsername().equals(claims.getSubject())) {
+            log.error("Provided refresh token is invalid for user {}", user.getUsername());
             throwException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
         }
 
         storedToken.setRevoked(true);
         refreshTokenRepository.save(storedToken);
+        TransactionUtils.afterCommit(() -> revokedTokenFilter.revoke(tokenHash, expiresAt));
 
+        var userDetails = UserPrincipal.from(user);
         var newAccessToken = jwtUtils.generateAccessToken(userDetails);
         var newRefreshToken = createAndSaveRefreshToken(userDetails);
 
@@ -164,8 +175,11 @@ public class AuthServiceImpl implements AuthService {
         }
 
         currentUser.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        currentUser.setTokenVersion(currentUser.getTokenVersion() + 1);
         userRepository.save(currentUser);
         refreshTokenRepository.deleteByUserId(currentUser.getId());
+        tokenVersionRegistry.invalidateAfterCommit(currentUser.getId());
+        userDetailService.evict(currentUser.getUsername());
 
         log.info("Password changed successfully for user {}", currentUser.getUsername());
     }
@@ -173,32 +187,35 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public void logout() {
-        var currentUser = securityUtils.getCurrentUser(API);
+        var currentUser = securityUtils.getCurrentPrincipal(API);
         refreshTokenRepository.deleteByUserId(currentUser.getId());
         SecurityContextHolder.clearContext();
 
         log.info("User {} logged out successfully", currentUser.getUsername());
     }
 
-    private String createAndSaveRefreshToken(UserDetails userDetails) {
-        var user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> {
-                    log.error("User not found while creating refresh token: {}", userDetails.getUsername());
-                    return exception(HttpStatus.NOT_FOUND, "User not found");
-                });
+    private Claims parseRefreshToken(String refreshToken) {
+        try {
+            return jwtUtils.parseToken(refreshToken, true);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Refresh token is invalid or expired: {}", e.getMessage());
+            throw exception(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+    }
 
-        refreshTokenRepository.deleteByUserId(user.getId());
+    private String createAndSaveRefreshToken(UserPrincipal userDetails) {
+        refreshTokenRepository.deleteByUserId(userDetails.getId());
 
         var refreshTokenValue = jwtUtils.generateRefreshToken(userDetails);
 
         var refreshTokenEntity = new RefreshToken();
-        refreshTokenEntity.setToken(refreshTokenValue);
-        refreshTokenEntity.setUser(user);
+        refreshTokenEntity.setTokenHash(HashUtils.sha256Hex(refreshTokenValue));
+        refreshTokenEntity.setUser(userRepository.getReferenceById(userDetails.getId()));
         refreshTokenEntity.setExpiryDate(now().plusSeconds(refreshTokenExpirationInMs / 1000));
         refreshTokenEntity.setRevoked(false);
 
         refreshTokenRepository.save(refreshTokenEntity);
-        log.info("Refresh token created and saved for user {}", user.getUsername());
+        log.info("Refresh token created and saved for user {}", userDetails.getUsername());
 
         return refreshTokenValue;
     }
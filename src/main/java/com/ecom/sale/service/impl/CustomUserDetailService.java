@@ -1,41 +1,90 @@
 package com.ecom.sale.service.impl;
 
+import com.ecom.sale.dto.UserPrincipal;
 import com.ecom.sale.repository.UserRepository;
+import com.ecom.sale.util.BoundedTtlCache;
+import com.ecom.sale.util.TransactionUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.stream.Collectors;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailService implements UserDetailsService {
 
+    private static final String CACHE_NAME = "principals";
+
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.principal-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${security.principal-cache.ttl:300000}")
+    private long cacheTtlInMs;
+
+    private BoundedTtlCache<String, UserPrincipal> principals;
+
+    @PostConstruct
+    void init() {
+        principals = new BoundedTtlCache<>(cacheEnabled ? cacheMaxSize : 0);
+        FunctionCounter.builder("cache.gets", principals, BoundedTtlCache::hitCount)
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", principals, BoundedTtlCache::missCount)
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", principals, BoundedTtlCache::evictionCount)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", principals, BoundedTtlCache::size)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
 
+    // backs password authentication, so it always reads the current hash from the database
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Attempting to load user by username: {}", username);
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        log.debug("Attempting to load user by username: {}", username);
         var user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
                     log.error("User not found with username: {}", username);
                     return new UsernameNotFoundException("User not found with username: " + username);
                 });
-        log.info("User {} loaded successfully", user.getUsername());
-
-        return new User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName()))
-                        .collect(Collectors.toList())
-        );
+        log.debug("User {} loaded successfully", user.getUsername());
+        return UserPrincipal.from(user);
     }
-}
 
+    /**
+     * Principal for requests that already carry a valid JWT. The cached copy holds no password hash,
+     * so it can never be used to check credentials.
+     */
+    public UserPrincipal loadPrincipal(String username) throws UsernameNotFoundException {
+        var cached = principals.get(username);
+        if (cached != null) {
+            log.debug("User {} resolved from principal cache", username);
+            return cached;
+        }
+
+        var user = loadUserByUsername(username);
+        var principal = new UserPrincipal(user.getId(), user.getUsername(), null, user.getTokenVersion(), user.getRoles());
+        principals.put(username, principal, System.currentTimeMillis() + cacheTtlInMs);
+        return principal;
+    }
+
+    public void evict(String username) {
+        principals.invalidate(username);
+        TransactionUtils.afterCommit(() -> principals.invalidate(username));
+    }
+}
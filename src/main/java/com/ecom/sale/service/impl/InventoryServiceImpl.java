@@ -0,0 +1,217 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.exception.ThrottledException;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.repository.ProductRepository;
+import com.ecom.sale.repository.projection.StockBucketView;
+import com.ecom.sale.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final String API = "/orders";
+
+    private final ProductRepository productRepository;
+
+    @Value("${inventory.pessimistic-locking:false}")
+    private boolean pessimisticLocking;
+
+    @Value("${inventory.hot.lock-timeout:PT2S}")
+    private Duration bucketLockTimeout;
+
+    @Value("${inventory.hot.retry-after:1}")
+    private long lockRetryAfterSeconds;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Product product, int quantity) {
+        var reserved = product.isHot()
+                ? reserveFromBuckets(product, quantity, false)
+                : productRepository.reserveStock(product.getId(), quantity) == 1;
+        if (!reserved) {
+            log.warn("Reservation rejected: product '{}' has less than {} units", product.getName(), quantity);
+            throw new CustomException(
+                    API, HttpStatus.BAD_REQUEST,
+                    "Not enough stock for product: " + product.getName(), LocalDateTime.now()
+            );
+        }
+        log.debug("Reserved product '{}' x{}", product.getName(), quantity);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Product product, int quantity) {
+        return product.isHot()
+                ? reserveFromBuckets(product, quantity, true)
+                : productRepository.reserveStock(product.getId(), quantity) == 1;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveAll(Map<Long, Product> productsById, Map<Long, Integer> quantitiesByProductId) {
+        // rows are always touched in ascending product id order, so two checkouts sharing products cannot deadlock
+        var quantities = new TreeMap<>(quantitiesByProductId);
+        lockStock(quantities.keySet().stream().map(productsById::get).toList());
+        quantities.forEach((productId, quantity) -> reserve(productsById.get(productId), quantity));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjustAll(Map<Long, Product> productsById, Map<Long, Integer> deltasByProductId) {
+        // one ascending pass for both directions keeps the same lock order as reserveAll
+        var deltas = new TreeMap<>(deltasByProductId);
+        lockStock(deltas.keySet().stream().map(productsById::get).toList());
+        var random = ThreadLocalRandom.current();
+        deltas.forEach((productId, delta) -> {
+            if (delta > 0) {
+                reserve(productsById.get(productId), delta);
+            } else if (delta < 0) {
+                releaseOne(productId, -delta, random.nextInt(Integer.MAX_VALUE));
+            }
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockStock(Collection<Product> products) {
+        if (!pessimisticLocking) {
+            return;
+        }
+        var ids = products.stream()
+                .filter(product -> !product.isHot())
+                .map(Product::getId)
+                .distinct()
+                .sorted()
+                .toList();
+        if (!ids.isEmpty()) {
+            productRepository.lockStockRows(ids);
+            log.debug("Locked stock rows of {} products", ids.size());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Integer> quantitiesByProductId) {
+        var random = ThreadLocalRandom.current();
+        new TreeMap<>(quantitiesByProductId).forEach((productId, quantity) ->
+                releaseOne(productId, quantity, random.nextInt(Integer.MAX_VALUE)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseForOrders(List<Long> orderIds) {
+        var products = productRepository.releaseStockForOrders(orderIds);
+        var buckets = productRepository.releaseBucketStockForOrders(orderIds);
+        log.debug("Restored stock of {} orders: products={}, buckets={}", orderIds.size(), products, buckets);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void configureBuckets(Product product, int buckets) {
+        var total = product.getQuantity() + collapseBuckets(product);
+        distribute(product, total, buckets);
+        log.info("Configured {} stock buckets for product id={}, total quantity={}", buckets, product.getId(), total);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void setStock(Product product, int quantity) {
+        collapseBuckets(product);
+        distribute(product, quantity, product.getStockBuckets());
+    }
+
+    private void releaseOne(Long productId, int quantity, int seed) {
+        if (productRepository.releaseStock(productId, quantity) == 0) {
+            productRepository.releaseToBucket(productId, seed, quantity);
+        }
+        log.debug("Restored {} units to product id={}", quantity, productId);
+    }
+
+    private boolean reserveFromBuckets(Product product, int quantity, boolean skipLocked) {
+        var productId = product.getId();
+        var bucketNo = ThreadLocalRandom.current().nextInt(product.getStockBuckets());
+        if (productRepository.reserveFromBucket(productId, bucketNo, quantity) == 1) {
+            return true;
+        }
+
+        // the random bucket ran dry: drain the others. Batches skip buckets other transactions hold;
+        // single orders wait for them, so a shortage is only reported when the stock is really gone
+        var buckets = skipLocked
+                ? productRepository.lockAvailableBuckets(productId)
+                : waitForAvailableBuckets(product);
+        var remaining = quantity;
+        var taken = new LinkedHashMap<Integer, Integer>();
+        for (var bucket : buckets) {
+            var take = Math.min(remaining, bucket.getQuantity());
+            productRepository.reserveFromBucket(productId, bucket.getBucketNo(), take);
+            taken.put(bucket.getBucketNo(), take);
+            remaining -= take;
+            if (remaining == 0) {
+                return true;
+            }
+        }
+        taken.forEach((takenBucketNo, take) -> productRepository.returnToBucket(productId, takenBucketNo, take));
+        return false;
+    }
+
+    private List<StockBucketView> waitForAvailableBuckets(Product product) {
+        try {
+            var previous = productRepository.currentLockTimeout();
+            productRepository.setLocalLockTimeout(bucketLockTimeout.toMillis() + "ms");
+            var buckets = productRepository.waitForAvailableBuckets(product.getId());
+            productRepository.setLocalLockTimeout(previous);
+            return buckets;
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("Timed out waiting for stock buckets of product id={}", product.getId());
+            throw new ThrottledException(
+                    API, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Stock for product " + product.getName() + " is busy, try again later", lockRetryAfterSeconds
+            );
+        }
+    }
+
+    private int collapseBuckets(Product product) {
+        if (!product.isHot()) {
+            return 0;
+        }
+        var total = productRepository.lockAllBuckets(product.getId()).stream()
+                .mapToInt(StockBucketView::getQuantity)
+                .sum();
+        productRepository.deleteBuckets(product.getId());
+        return total;
+    }
+
+    private void distribute(Product product, int total, int buckets) {
+        if (buckets > 0) {
+            for (int i = 0; i < buckets; i++) {
+                productRepository.insertBucket(product.getId(), i, total / buckets + (i < total % buckets ? 1 : 0));
+            }
+            product.setQuantity(0);
+            product.setBucketQuantity(total);
+        } else {
+            product.setQuantity(total);
+            product.setBucketQuantity(null);
+        }
+        product.setStockBuckets(buckets);
+    }
+}
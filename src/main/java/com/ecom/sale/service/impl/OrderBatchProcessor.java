@@ -0,0 +1,208 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.dto.OrderBatchItemDto;
+import com.ecom.sale.dto.request.OrderRequest;
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.mapper.OrderMapper;
+import com.ecom.sale.model.Order;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.repository.OrderRepository;
+import com.ecom.sale.repository.ProductRepository;
+import com.ecom.sale.repository.UserRepository;
+import com.ecom.sale.service.InventoryService;
+import com.ecom.sale.service.OutboxService;
+import com.ecom.sale.util.OrderItemUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.ecom.sale.enums.OrderStatus.NEW;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderBatchProcessor {
+
+    private static final String RESERVE_STOCK =
+            "UPDATE products SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+    private static final String RELEASE_STOCK =
+            "UPDATE products SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final OrderMapper orderMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public record OrderSubmission(Long userId, OrderRequest request) {
+    }
+
+    @Transactional
+    public List<OrderBatchItemDto> process(List<OrderSubmission> submissions) {
+        var results = new ArrayList<OrderBatchItemDto>(submissions.size());
+        var productIds = submissions.stream()
+                .map(OrderSubmission::request)
+                .filter(request -> request != null && request.getProductIds() != null)
+                .flatMap(request -> request.getProductIds().stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        var productsById = productRepository.findAllByIdIn(new ArrayList<>(productIds)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        var lines = new ArrayList<Line>();
+        for (int i = 0; i < submissions.size(); i++) {
+            var result = new OrderBatchItemDto();
+            result.setIndex(i);
+            results.add(result);
+
+            var request = submissions.get(i).request();
+            var error = validate(request, productsById);
+            if (error != null) {
+                fail(result, error);
+                continue;
+            }
+            var quantities = new TreeMap<Long, Integer>();
+            for (int j = 0; j < request.getProductIds().size(); j++) {
+                quantities.merge(request.getProductIds().get(j), request.getQuantities().get(j), Integer::sum);
+            }
+            var index = i;
+            quantities.forEach((productId, quantity) -> lines.add(new Line(index, productsById.get(productId), quantity)));
+        }
+
+        // ascending product id keeps row lock order consistent with concurrent batches
+        lines.sort(Comparator.comparing((Line line) -> line.product.getId()).thenComparingInt(line -> line.index));
+        inventoryService.lockStock(productsById.values());
+        reserve(lines);
+
+        for (var line : lines) {
+            if (!line.reserved && results.get(line.index).getError() == null) {
+                fail(results.get(line.index), "Not enough stock for product: " + line.product.getName());
+            }
+        }
+        release(lines.stream()
+                .filter(line -> line.reserved && results.get(line.index).getError() != null)
+                .toList());
+
+        var orders = new TreeMap<Integer, Order>();
+        for (var line : lines) {
+            if (results.get(line.index).getError() == null) {
+                var order = orders.computeIfAbsent(line.index, index -> newOrder(submissions.get(index).userId()));
+                order.getOrderItems().add(OrderItemUtils.buildOrderItem(order, line.product, line.quantity));
+            }
+        }
+        orders.values().forEach(order -> order.setTotalAmount(OrderItemUtils.calculateTotalAmount(order.getOrderItems())));
+        orderRepository.saveAll(orders.values());
+        outboxService.recordOrders(OutboxEventType.ORDER_CREATED, orders.values());
+
+        orders.forEach((index, order) -> {
+            var result = results.get(index);
+            result.setSuccess(true);
+            result.setOrder(orderMapper.toDto(order));
+        });
+
+        log.info("Processed order batch: submitted={}, created={}", submissions.size(), orders.size());
+        return results;
+    }
+
+    private String validate(OrderRequest request, Map<Long, Product> productsById) {
+        if (request == null) {
+            return "Order must not be null";
+        }
+        if (request.getProductIds() == null || request.getQuantities() == null || request.getProductIds().isEmpty()) {
+            return "Product IDs and quantities must not be empty";
+        }
+        if (request.getProductIds().size() != request.getQuantities().size()) {
+            return "Product IDs and quantities must match in size";
+        }
+        for (int i = 0; i < request.getProductIds().size(); i++) {
+            if (!productsById.containsKey(request.getProductIds().get(i))) {
+                return "One or more products not found";
+            }
+            var quantity = request.getQuantities().get(i);
+            if (quantity == null || quantity <= 0) {
+                return "Quantity must be positive";
+            }
+        }
+        return null;
+    }
+
+    private void reserve(List<Line> lines) {
+        var plain = lines.stream().filter(line -> !line.product.isHot()).toList();
+        if (!plain.isEmpty()) {
+            var counts = jdbcTemplate.batchUpdate(RESERVE_STOCK, plain, plain.size(), (ps, line) -> {
+                ps.setInt(1, line.quantity);
+                ps.setLong(2, line.product.getId());
+                ps.setInt(3, line.quantity);
+            });
+            for (int i = 0; i < plain.size(); i++) {
+                plain.get(i).reserved = counts[0][i] == 1;
+            }
+        }
+        for (var line : lines) {
+            if (line.product.isHot()) {
+                line.reserved = inventoryService.tryReserve(line.product, line.quantity);
+            }
+        }
+    }
+
+    private void release(List<Line> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        var plain = lines.stream().filter(line -> !line.product.isHot()).toList();
+        if (!plain.isEmpty()) {
+            jdbcTemplate.batchUpdate(RELEASE_STOCK, plain, plain.size(), (ps, line) -> {
+                ps.setInt(1, line.quantity);
+                ps.setLong(2, line.product.getId());
+            });
+        }
+        var hot = new HashMap<Long, Integer>();
+        lines.stream()
+                .filter(line -> line.product.isHot())
+                .forEach(line -> hot.merge(line.product.getId(), line.quantity, Integer::sum));
+        if (!hot.isEmpty()) {
+            inventoryService.release(hot);
+        }
+        log.info("Released stock of {} lines from rejected batch orders", lines.size());
+    }
+
+    private Order newOrder(Long userId) {
+        var order = new Order();
+        order.setStatus(NEW);
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setOrderItems(new ArrayList<>());
+        return order;
+    }
+
+    private void fail(OrderBatchItemDto result, String error) {
+        result.setSuccess(false);
+        result.setError(error);
+    }
+
+    private static final class Line {
+        private final int index;
+        private final Product product;
+        private final int quantity;
+        private boolean reserved;
+
+        private Line(int index, Product product, int quantity) {
+            this.index = index;
+            this.product = product;
+            this.quantity = quantity;
+        }
+    }
+}
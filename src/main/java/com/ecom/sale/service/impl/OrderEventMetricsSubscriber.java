@@ -0,0 +1,34 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.dto.OutboxMessage;
+import com.ecom.sale.service.OutboxSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class OrderEventMetricsSubscriber implements OutboxSubscriber {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String name() {
+        return "order-event-metrics";
+    }
+
+    @Override
+    public void onEvents(List<OutboxMessage> events) {
+        Map<String, Long> counts = events.stream()
+                .collect(Collectors.groupingBy(event -> event.eventType().name(), Collectors.counting()));
+        counts.forEach((type, count) -> Counter.builder("order.events")
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(count));
+    }
+}
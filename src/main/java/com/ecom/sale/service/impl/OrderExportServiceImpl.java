@@ -0,0 +1,291 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.service.OrderExportService;
+import com.ecom.sale.util.SecurityUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String API = "/orders/export";
+
+    private static final String EXPORT_ORDERS = """
+            SELECT o.id, o.user_id, o.status, o.total_amount, o.created_date, o.paid_at, o.cancelled_at,
+                   p.payment_status, i.id AS item_id, i.product_id, i.quantity, i.unit_price, i.total_price
+            FROM orders o
+            LEFT JOIN payments p ON p.order_id = o.id
+            LEFT JOIN order_items i ON i.order_id = o.id
+            WHERE o.created_date >= ? AND o.created_date < ?
+            ORDER BY o.created_date, o.id, i.id""";
+
+    private static final String CSV_HEADER = "order_id,user_id,status,total_amount,payment_status,created_date,"
+            + "paid_at,cancelled_at,item_id,product_id,quantity,unit_price,total_price\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final SecurityUtils securityUtils;
+
+    @Value("${order.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${order.export.flush-rows:1000}")
+    private int flushRows;
+
+    @Value("${order.export.timeout:PT30M}")
+    private Duration timeout;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private record ExportedItem(Long id, Long productId, Integer quantity, BigDecimal unitPrice, BigDecimal totalPrice) {
+    }
+
+    private record ExportedOrder(Long id, Long userId, String status, BigDecimal totalAmount, String paymentStatus,
+                                 LocalDateTime createdDate, LocalDateTime paidAt, LocalDateTime cancelledAt,
+                                 List<ExportedItem> items) {
+    }
+
+    private enum Format {
+        CSV, NDJSON
+    }
+
+    @Override
+    public Export exportOrders(LocalDateTime from, LocalDateTime to, String format, boolean gzip) {
+        securityUtils.validateAdmin(API);
+        if (!from.isBefore(to)) {
+            throw new CustomException(API, HttpStatus.BAD_REQUEST, "'from' must be before 'to'", LocalDateTime.now());
+        }
+        var exportFormat = resolveFormat(format);
+        var fileName = "orders-" + from.toLocalDate() + "-" + to.toLocalDate()
+                + (exportFormat == Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        var contentType = exportFormat == Format.CSV ? "text/csv" : "application/x-ndjson";
+
+        return new Export(contentType, fileName, timeout, output -> {
+            var target = gzip ? new GZIPOutputStream(output, 64 * 1024) : output;
+            var rows = readOnlyTransaction.execute(status -> stream(from, to, exportFormat, target));
+            if (target instanceof GZIPOutputStream gzipOutput) {
+                gzipOutput.finish();
+            }
+            target.flush();
+            log.info("Exported {} order rows as {}: from={}, to={}", rows, exportFormat, from, to);
+        });
+    }
+
+    // runs inside a read-only transaction so the driver honours the fetch size and reads through a cursor
+    private long stream(LocalDateTime from, LocalDateTime to, Format format, OutputStream output) {
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        var exporter = format == Format.CSV ? new CsvExporter(writer) : new NdjsonExporter(writer);
+        var counter = new long[1];
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(EXPORT_ORDERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return statement;
+        }, resultSet -> {
+            exporter.accept(resultSet);
+            if (++counter[0] % flushRows == 0) {
+                exporter.flush();
+            }
+        });
+        exporter.finish();
+        return counter[0];
+    }
+
+    private Format resolveFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new CustomException(API, HttpStatus.BAD_REQUEST,
+                    "Unsupported export format, expected csv or ndjson", LocalDateTime.now());
+        }
+    }
+
+    private abstract static class Exporter {
+
+        protected final Writer writer;
+
+        Exporter(Writer writer) {
+            this.writer = writer;
+        }
+
+        abstract void accept(ResultSet row) throws SQLException;
+
+        void finish() {
+            flush();
+        }
+
+        void flush() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class CsvExporter extends Exporter {
+
+        private CsvExporter(Writer writer) {
+            super(writer);
+            write(CSV_HEADER);
+        }
+
+        @Override
+        void accept(ResultSet row) throws SQLException {
+            var line = new StringBuilder(160)
+                    .append(row.getLong("id")).append(',')
+                    .append(row.getLong("user_id")).append(',')
+                    .append(row.getString("status")).append(',')
+                    .append(row.getBigDecimal("total_amount").toPlainString()).append(',')
+                    .append(nullToEmpty(row.getString("payment_status"))).append(',')
+                    .append(format(row.getTimestamp("created_date"))).append(',')
+                    .append(format(row.getTimestamp("paid_at"))).append(',')
+                    .append(format(row.getTimestamp("cancelled_at"))).append(',')
+                    .append(nullToEmpty(row.getObject("item_id", Long.class))).append(',')
+                    .append(nullToEmpty(row.getObject("product_id", Long.class))).append(',')
+                    .append(nullToEmpty(row.getObject("quantity", Integer.class))).append(',')
+                    .append(plain(row.getBigDecimal("unit_price"))).append(',')
+                    .append(plain(row.getBigDecimal("total_price"))).append('\n');
+            write(line.toString());
+        }
+
+        private void write(String value) {
+            try {
+                writer.write(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String format(Timestamp timestamp) {
+            return timestamp == null ? "" : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp.toLocalDateTime());
+        }
+
+        private static String plain(BigDecimal value) {
+            return value == null ? "" : value.toPlainString();
+        }
+
+        private static String nullToEmpty(Object value) {
+            return value == null ? "" : value.toString();
+        }
+    }
+
+    private final class NdjsonExporter extends Exporter {
+
+        private final JsonGenerator generator;
+        private ExportedOrder current;
+
+        private NdjsonExporter(Writer writer) {
+            super(writer);
+            try {
+                // lines are separated explicitly; the default root separator would start each one with a space
+                this.generator = objectMapper.getFactory().createGenerator(writer)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .setRootValueSeparator(null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // rows arrive grouped by order, so only the order being assembled is kept in memory
+        @Override
+        void accept(ResultSet row) throws SQLException {
+            var orderId = row.getLong("id");
+            if (current == null || !current.id().equals(orderId)) {
+                writeCurrent();
+                current = new ExportedOrder(
+                        orderId,
+                        row.getLong("user_id"),
+                        row.getString("status"),
+                        row.getBigDecimal("total_amount"),
+                        row.getString("payment_status"),
+                        toLocalDateTime(row.getTimestamp("created_date")),
+                        toLocalDateTime(row.getTimestamp("paid_at")),
+                        toLocalDateTime(row.getTimestamp("cancelled_at")),
+                        new ArrayList<>()
+                );
+            }
+            var itemId = row.getObject("item_id", Long.class);
+            if (itemId != null) {
+                current.items().add(new ExportedItem(
+                        itemId,
+                        row.getLong("product_id"),
+                        row.getInt("quantity"),
+                        row.getBigDecimal("unit_price"),
+                        row.getBigDecimal("total_price")
+                ));
+            }
+        }
+
+        @Override
+        void finish() {
+            writeCurrent();
+            super.finish();
+        }
+
+        @Override
+        void flush() {
+            try {
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            super.flush();
+        }
+
+        private void writeCurrent() {
+            if (current == null) {
+                return;
+            }
+            try {
+                generator.writeObject(current);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = null;
+        }
+
+        private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+    }
+}
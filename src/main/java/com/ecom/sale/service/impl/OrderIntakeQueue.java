@@ -0,0 +1,259 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.dto.OrderIntakeDto;
+import com.ecom.sale.dto.request.OrderRequest;
+import com.ecom.sale.enums.OrderIntakeStatus;
+import com.ecom.sale.exception.ThrottledException;
+import com.ecom.sale.service.impl.OrderBatchProcessor.OrderSubmission;
+import com.ecom.sale.util.OrderIntakeStore;
+import com.ecom.sale.util.OrderIntakeStore.Resolution;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates orders accepted with Prefer: respond-async. Every intake is stored before it is
+ * acknowledged, then handed to the workers through an in-memory queue; intakes left queued by a
+ * restart are picked up again by {@link #recover(Duration, int)}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderIntakeQueue {
+
+    private static final String API = "/orders";
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final OrderBatchProcessor orderBatchProcessor;
+    private final OrderIntakeStore orderIntakeStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.intake.capacity:1000}")
+    private int capacity;
+
+    @Value("${order.intake.workers:2}")
+    private int workers;
+
+    @Value("${order.intake.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${order.intake.linger:PT0.005S}")
+    private Duration linger;
+
+    @Value("${order.intake.retry-after:1}")
+    private long retryAfterSeconds;
+
+    @Value("${order.intake.shutdown-timeout:PT30S}")
+    private Duration shutdownTimeout;
+
+    private BlockingQueue<Pending> queue;
+    private ExecutorService executor;
+    private volatile boolean accepting;
+    private Counter rejected;
+    private Timer batchTimer;
+    private DistributionSummary batchSize;
+
+    private record Pending(String intakeId, OrderSubmission submission) {
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        var threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            var thread = new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("order.intake.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        rejected = Counter.builder("order.intake.rejected").register(meterRegistry);
+        batchTimer = Timer.builder("order.intake.batch.duration").register(meterRegistry);
+        batchSize = DistributionSummary.builder("order.intake.batch.size").register(meterRegistry);
+
+        accepting = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drain);
+        }
+        log.info("Order intake started: workers={}, capacity={}, maxBatchSize={}", workers, capacity, maxBatchSize);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        accepting = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Order intake stopped with {} queued orders, they are recovered from the database", queue.size());
+            executor.shutdownNow();
+        }
+    }
+
+    public OrderIntakeDto submit(Long userId, OrderRequest request) {
+        if (!accepting) {
+            throw busy();
+        }
+        var intakeId = UUID.randomUUID().toString();
+        orderIntakeStore.insert(intakeId, userId, write(request));
+
+        if (!accepting || !queue.offer(new Pending(intakeId, new OrderSubmission(userId, request)))) {
+            orderIntakeStore.delete(intakeId);
+            throw busy();
+        }
+        return state(intakeId, OrderIntakeStatus.QUEUED);
+    }
+
+    public Optional<OrderIntakeDto> find(String intakeId, Long userId) {
+        return orderIntakeStore.find(intakeId, userId).map(entry -> {
+            var state = state(entry.intakeId(), entry.status());
+            state.setOrderId(entry.orderId());
+            state.setError(entry.error());
+            return state;
+        });
+    }
+
+    /**
+     * Queues again intakes that stayed queued for longer than {@code staleAfter}, which happens when
+     * the instance that accepted them stopped before processing. Returns how many were queued.
+     */
+    public int recover(Duration staleAfter, int limit) {
+        if (!accepting || queue.remainingCapacity() == 0) {
+            return 0;
+        }
+        var recovered = 0;
+        for (var queued : orderIntakeStore.claimStale(staleAfter, Math.min(limit, queue.remainingCapacity()))) {
+            OrderRequest request;
+            try {
+                request = objectMapper.readValue(queued.payload(), OrderRequest.class);
+            } catch (JsonProcessingException e) {
+                log.error("Queued order {} has an unreadable payload", queued.intakeId(), e);
+                orderIntakeStore.resolve(List.of(rejection(queued.intakeId(), "Order could not be processed")));
+                continue;
+            }
+            // a full queue leaves the rest for the next run
+            if (!queue.offer(new Pending(queued.intakeId(), new OrderSubmission(queued.userId(), request)))) {
+                break;
+            }
+            recovered++;
+        }
+        return recovered;
+    }
+
+    private void drain() {
+        var batch = new ArrayList<Pending>(maxBatchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                if (batch.size() < maxBatchSize && !linger.isZero()) {
+                    var next = queue.poll(linger.toNanos(), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                    }
+                }
+                batchSize.record(batch.size());
+                batchTimer.record(() -> process(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake worker failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Pending> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> createOrders(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.error("Queued order {} failed", batch.get(0).intakeId(), e);
+                orderIntakeStore.resolve(List.of(rejection(batch.get(0).intakeId(), "Order could not be processed")));
+                return;
+            }
+            // isolate the order that broke the shared transaction
+            log.warn("Order intake batch of {} failed, retrying orders one by one", batch.size(), e);
+            batch.forEach(pending -> process(List.of(pending)));
+            return;
+        }
+        log.info("Processed queued orders: batch={}, remaining={}", batch.size(), queue.size());
+    }
+
+    // orders and intake states commit together, so an intake is never created twice or left behind
+    private void createOrders(List<Pending> batch) {
+        var queued = orderIntakeStore.lockQueued(batch.stream().map(Pending::intakeId).toList());
+        var pending = batch.stream().filter(item -> queued.contains(item.intakeId())).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        var results = orderBatchProcessor.process(pending.stream().map(Pending::submission).toList());
+        var resolutions = new ArrayList<Resolution>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            var intakeId = pending.get(i).intakeId();
+            var result = results.get(i);
+            resolutions.add(result.isSuccess()
+                    ? new Resolution(intakeId, OrderIntakeStatus.CREATED, result.getOrder().getId(), null)
+                    : rejection(intakeId, result.getError()));
+        }
+        orderIntakeStore.resolve(resolutions);
+    }
+
+    private Resolution rejection(String intakeId, String error) {
+        return new Resolution(intakeId, OrderIntakeStatus.REJECTED, null, error);
+    }
+
+    private String write(OrderRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order request", e);
+        }
+    }
+
+    private ThrottledException busy() {
+        rejected.increment();
+        return new ThrottledException(API, HttpStatus.SERVICE_UNAVAILABLE,
+                "Order intake is busy, try again later", retryAfterSeconds);
+    }
+
+    private OrderIntakeDto state(String intakeId, OrderIntakeStatus status) {
+        var state = new OrderIntakeDto();
+        state.setIntakeId(intakeId);
+        state.setStatus(status);
+        return state;
+    }
+}
@@ -1,30 +1,54 @@
 package com.ecom.sale.service.impl;
 
+import com.ecom.sale.dto.CursorPageDto;
+import com.ecom.sale.dto.OrderBatchItemDto;
+import com.ecom.sale.dto.OrderBatchResultDto;
 import com.ecom.sale.dto.OrderDto;
+import com.ecom.sale.dto.OrderIntakeDto;
+import com.ecom.sale.dto.request.OrderBatchRequest;
 import com.ecom.sale.dto.request.OrderRequest;
+import com.ecom.sale.enums.OutboxEventType;
 import com.ecom.sale.enums.Role;
 import com.ecom.sale.exception.CustomException;
 import com.ecom.sale.mapper.OrderMapper;
 import com.ecom.sale.model.Order;
 import com.ecom.sale.model.OrderItem;
 import com.ecom.sale.model.Product;
+import com.ecom.sale.repository.OrderItemRepository;
 import com.ecom.sale.repository.OrderRepository;
 import com.ecom.sale.repository.PaymentRepository;
 import com.ecom.sale.repository.ProductRepository;
+import com.ecom.sale.repository.UserRepository;
+import com.ecom.sale.repository.projection.OrderItemView;
+import com.ecom.sale.repository.projection.OrderSummaryView;
+import com.ecom.sale.service.InventoryService;
 import com.ecom.sale.service.OrderService;
+import com.ecom.sale.service.OutboxService;
+import com.ecom.sale.util.CursorUtils;
+import com.ecom.sale.util.OrderItemUtils;
 import com.ecom.sale.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.ecom.sale.enums.OrderStatus.CANCELLED;
 import static com.ecom.sale.enums.OrderStatus.NEW;
@@ -35,52 +59,108 @@ import static com.ecom.sale.enums.OrderStatus.NEW;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final PaymentRepository paymentRepository;
     private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final InventoryService inventoryService;
     private final OrderMapper orderMapper;
     private final SecurityUtils securityUtils;
+    private final OrderBatchProcessor orderBatchProcessor;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final OutboxService outboxService;
 
     private static final String API = "/orders";
 
+    @Value("${order.batch.max-size:500}")
+    private int maxBatchSize;
+
     @Override
     @Transactional
     public OrderDto createOrder(OrderRequest request) {
-        var currentUser = securityUtils.getCurrentUser(API);
+        var currentUser = securityUtils.getCurrentPrincipal(API);
         validateRequest(request);
 
         var order = new Order();
         order.setStatus(NEW);
-        order.setUser(currentUser);
+        order.setUser(userRepository.getReferenceById(currentUser.getId()));
 
         var items = buildOrderItems(order, request);
         order.setOrderItems(items);
-        order.setTotalAmount(calculateTotalAmount(items));
+        order.setTotalAmount(OrderItemUtils.calculateTotalAmount(items));
 
         orderRepository.save(order);
+        outboxService.record(OutboxEventType.ORDER_CREATED, order);
         log.info("Created order: id={}, totalAmount={}", order.getId(), order.getTotalAmount());
 
         return orderMapper.toDto(order);
     }
 
+    @Override
+    public OrderBatchResultDto createOrders(OrderBatchRequest request) {
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        if (request.getOrders().size() > maxBatchSize) {
+            throw exception(HttpStatus.BAD_REQUEST, "Batch must not contain more than " + maxBatchSize + " orders");
+        }
+
+        var submissions = request.getOrders().stream()
+                .map(order -> new OrderBatchProcessor.OrderSubmission(currentUser.getId(), order))
+                .toList();
+        var results = orderBatchProcessor.process(submissions);
+
+        var response = new OrderBatchResultDto();
+        response.setResults(results);
+        response.setSucceeded((int) results.stream().filter(OrderBatchItemDto::isSuccess).count());
+        response.setFailed(results.size() - response.getSucceeded());
+        log.info("Created orders in batch: succeeded={}, failed={}", response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    @Override
+    public OrderIntakeDto submitOrder(OrderRequest request) {
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        validateRequest(request);
+
+        var intake = orderIntakeQueue.submit(currentUser.getId(), request);
+        log.info("Queued order: intakeId={}", intake.getIntakeId());
+        return intake;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderIntakeDto getOrderIntake(String intakeId) {
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        var intake = orderIntakeQueue.find(intakeId, currentUser.getId())
+                .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Order intake not found with id=" + intakeId));
+        if (intake.getOrderId() != null) {
+            orderRepository.findWithItemsById(intake.getOrderId())
+                    .map(orderMapper::toDto)
+                    .ifPresent(intake::setOrder);
+        }
+        return intake;
+    }
+
     @Override
     @Transactional
     public OrderDto updateOrder(Long orderId, OrderRequest request) {
-        var currentUser = securityUtils.getCurrentUser(API);
+        var currentUser = securityUtils.getCurrentPrincipal(API);
         validateRequest(request);
 
-        var order = orderRepository.findById(orderId)
+        var order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Order not found with id=" + orderId));
-        securityUtils.hasPermission(currentUser, order.getUser(), API);
-
-        restoreProductQuantities(order.getOrderItems());
-        order.getOrderItems().clear();
+        securityUtils.hasPermission(currentUser, order.getUser().getId(), API);
+        checkNotCancelled(order);
 
-        var newItems = buildOrderItems(order, request);
-        order.getOrderItems().addAll(newItems);
-        order.setTotalAmount(calculateTotalAmount(newItems));
+        var changed = applyItemChanges(order, collectQuantities(request));
+        if (!changed && order.getStatus() == NEW) {
+            log.info("Order id={} already matches the update, nothing to write", orderId);
+            return orderMapper.toDto(order);
+        }
+        order.setTotalAmount(OrderItemUtils.calculateTotalAmount(order.getOrderItems()));
         order.setStatus(NEW);
 
         orderRepository.save(order);
+        outboxService.record(OutboxEventType.ORDER_UPDATED, order);
         log.info("Updated order: id={}, totalAmount={}", order.getId(), order.getTotalAmount());
 
         return orderMapper.toDto(order);
@@ -89,11 +169,13 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public void deleteOrder(Long orderId) {
-        var currentUser = securityUtils.getCurrentUser(API);
-        var order = orderRepository.findById(orderId)
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        var order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Order not found with id=" + orderId));
 
         securityUtils.validateAccess(currentUser, order.getUser().getId(), API);
+        // the payload is captured while the order and its items still exist
+        outboxService.record(OutboxEventType.ORDER_DELETED, order);
 
         if (order.getPayment() != null) {
             paymentRepository.delete(order.getPayment());
@@ -112,7 +194,7 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public OrderDto getOrder(Long id) {
-        var order = orderRepository.findById(id)
+        var order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Order not found with id=" + id));
         log.info("Fetched order: id={}, totalAmount={}", order.getId(), order.getTotalAmount());
         return orderMapper.toDto(order);
@@ -121,33 +203,81 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public Page<OrderDto> getOrders(Pageable pageable) {
-        var currentUser = securityUtils.getCurrentUser(API);
+        var currentUser = securityUtils.getCurrentPrincipal(API);
 
-        Page<Order> orders;
+        Page<OrderSummaryView> orders;
 
-        if (currentUser.getRoles().stream().anyMatch(r -> r.getName().equals(Role.ROLE_ADMIN.name()))) {
-            orders = orderRepository.findAll(pageable);
+        if (currentUser.hasRole(Role.ROLE_ADMIN.name())) {
+            orders = orderRepository.findSummaries(pageable);
         } else {
-            orders = orderRepository.findAllByUser_Id(currentUser.getId(), pageable);
+            orders = orderRepository.findSummariesByUserId(currentUser.getId(), pageable);
         }
 
+        var itemsByOrderId = findItemsByOrderId(orders.getContent());
+
         log.info("Fetched orders: total={}", orders.getTotalElements());
-        return orders.map(orderMapper::toDto);
+        return orders.map(order -> orderMapper.toDto(order, itemsByOrderId.getOrDefault(order.id(), List.of())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<OrderDto> scrollOrders(String cursor, int size) {
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        var admin = currentUser.hasRole(Role.ROLE_ADMIN.name());
+        var pageSize = CursorUtils.pageSize(size);
+        var limit = Limit.of(pageSize + 1);
+
+        List<OrderSummaryView> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = admin
+                    ? orderRepository.findSummariesFirst(limit)
+                    : orderRepository.findSummariesByUserIdFirst(currentUser.getId(), limit);
+        } else {
+            var keys = CursorUtils.decode(cursor, 2, API);
+            Instant createdDate;
+            Long id;
+            try {
+                createdDate = Instant.parse(keys.get(0));
+                id = Long.valueOf(keys.get(1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw exception(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            orders = admin
+                    ? orderRepository.findSummariesAfter(createdDate, id, limit)
+                    : orderRepository.findSummariesByUserIdAfter(currentUser.getId(), createdDate, id, limit);
+        }
+
+        var itemsByOrderId = findItemsByOrderId(orders);
+        log.info("Fetched {} orders by cursor", Math.min(orders.size(), pageSize));
+        return CursorPageDto.of(orders, pageSize,
+                order -> orderMapper.toDto(order, itemsByOrderId.getOrDefault(order.id(), List.of())),
+                order -> CursorUtils.encode(order.createdDate(), order.id()));
     }
 
+    private Map<Long, List<OrderItemView>> findItemsByOrderId(List<OrderSummaryView> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        // items are never written before their order, so the oldest order bounds the item partitions to read
+        var since = orders.stream().map(OrderSummaryView::createdDate).min(Comparator.naturalOrder()).orElseThrow();
+        return orderItemRepository.findViewsByOrderIds(orders.stream().map(OrderSummaryView::id).toList(), since).stream()
+                .collect(Collectors.groupingBy(OrderItemView::orderId));
+    }
 
     @Override
     @Transactional
     public void cancelOrder(Long orderId) {
-        var currentUser = securityUtils.getCurrentUser(API);
-        var order = orderRepository.findById(orderId)
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        var order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Order not found with id=" + orderId));
-        securityUtils.hasPermission(currentUser, order.getUser(), API);
+        securityUtils.hasPermission(currentUser, order.getUser().getId(), API);
+        checkNotCancelled(order);
 
         restoreProductQuantities(order.getOrderItems());
         order.setStatus(CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
         orderRepository.save(order);
+        outboxService.record(OutboxEventType.ORDER_CANCELLED, order);
 
         log.info("Cancelled order: id={}, totalAmount={}", order.getId(), order.getTotalAmount());
     }
@@ -159,52 +289,96 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private List<OrderItem> buildOrderItems(Order order, OrderRequest request) {
-        var products = productRepository.findAllByIdIn(request.getProductIds());
+        var quantities = collectQuantities(request);
+        var productsById = findProducts(quantities.keySet());
 
-        if (products.size() != request.getProductIds().size()) {
-            throw exception(HttpStatus.NOT_FOUND, "One or more products not found");
-        }
-
-        var items = new ArrayList<OrderItem>();
-        for (int i = 0; i < products.size(); i++) {
-            var product = products.get(i);
-            int quantity = request.getQuantities().get(i);
+        inventoryService.reserveAll(productsById, quantities);
 
-            validateQuantity(quantity);
-            checkStock(product, quantity);
+        var items = new ArrayList<OrderItem>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            var product = productsById.get(productId);
+            items.add(OrderItemUtils.buildOrderItem(order, product, quantity));
+            log.info("Reserved product '{}' x{} for order", product.getName(), quantity);
+        });
+        return items;
+    }
 
-            items.add(buildOrderItem(order, product, quantity));
-            product.setQuantity(product.getQuantity() - quantity);
-            productRepository.save(product);
+    // returns whether any line changed
+    private boolean applyItemChanges(Order order, TreeMap<Long, Integer> requested) {
+        var itemsByProductId = new HashMap<Long, OrderItem>();
+        var folded = false;
+        for (var iterator = order.getOrderItems().iterator(); iterator.hasNext(); ) {
+            var item = iterator.next();
+            var kept = itemsByProductId.putIfAbsent(item.getProduct().getId(), item);
+            if (kept != null) {
+                // lines written before duplicates were collapsed: fold into one, stock stays as is
+                OrderItemUtils.setQuantity(kept, kept.getUnitPrice(), kept.getQuantity() + item.getQuantity());
+                iterator.remove();
+                folded = true;
+            }
+        }
 
-            log.info("Reserved product '{}' x{} for order", product.getName(), quantity);
+        var deltas = new TreeMap<Long, Integer>();
+        requested.forEach((productId, quantity) -> {
+            var item = itemsByProductId.get(productId);
+            var delta = item == null ? quantity : quantity - item.getQuantity();
+            if (delta != 0) {
+                deltas.put(productId, delta);
+            }
+        });
+        itemsByProductId.forEach((productId, item) -> {
+            if (!requested.containsKey(productId)) {
+                deltas.put(productId, -item.getQuantity());
+            }
+        });
+        if (deltas.isEmpty()) {
+            return folded;
         }
-        return items;
+
+        var productsById = findProducts(deltas.keySet());
+        inventoryService.adjustAll(productsById, deltas);
+
+        deltas.forEach((productId, delta) -> {
+            var item = itemsByProductId.get(productId);
+            var quantity = requested.get(productId);
+            if (item == null) {
+                order.getOrderItems().add(OrderItemUtils.buildOrderItem(order, productsById.get(productId), quantity));
+            } else if (quantity == null) {
+                order.getOrderItems().remove(item);
+            } else {
+                OrderItemUtils.setQuantity(item, productsById.get(productId).getPrice(), quantity);
+            }
+        });
+        log.info("Applied {} line changes to order id={}", deltas.size(), order.getId());
+        return true;
     }
 
-    private OrderItem buildOrderItem(Order order, Product product, int quantity) {
-        var item = new OrderItem();
-        item.setOrder(order);
-        item.setProduct(product);
-        item.setQuantity(quantity);
-        item.setUnitPrice(product.getPrice());
-        item.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
-        return item;
+    private TreeMap<Long, Integer> collectQuantities(OrderRequest request) {
+        var quantities = new TreeMap<Long, Integer>();
+        for (int i = 0; i < request.getProductIds().size(); i++) {
+            int quantity = request.getQuantities().get(i);
+            validateQuantity(quantity);
+            quantities.merge(request.getProductIds().get(i), quantity, Integer::sum);
+        }
+        return quantities;
     }
 
-    private BigDecimal calculateTotalAmount(List<OrderItem> items) {
-        return items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Map<Long, Product> findProducts(Set<Long> productIds) {
+        var productsById = productRepository.findAllByIdIn(new ArrayList<>(productIds)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (productsById.size() != productIds.size()) {
+            throw exception(HttpStatus.NOT_FOUND, "One or more products not found");
+        }
+        return productsById;
     }
 
     private void restoreProductQuantities(List<OrderItem> items) {
+        var quantities = new TreeMap<Long, Integer>();
         for (var item : items) {
-            var product = item.getProduct();
-            product.setQuantity(product.getQuantity() + item.getQuantity());
-            productRepository.save(product);
-            log.info("Restored {} units to product '{}'", item.getQuantity(), product.getName());
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        inventoryService.release(quantities);
+        log.info("Restored stock for {} products", quantities.size());
     }
 
     private void validateQuantity(int quantity) {
@@ -213,9 +387,9 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
-    private void checkStock(Product product, int orderQuantity) {
-        if (product.getQuantity() < orderQuantity) {
-            throw exception(HttpStatus.BAD_REQUEST, "Not enough stock for product: " + product.getName());
+    private void checkNotCancelled(Order order) {
+        if (order.getStatus() == CANCELLED) {
+            throw exception(HttpStatus.BAD_REQUEST, "Order is already cancelled");
         }
     }
 
@@ -0,0 +1,64 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.mapper.OrderMapper;
+import com.ecom.sale.mapper.PaymentMapper;
+import com.ecom.sale.model.Order;
+import com.ecom.sale.model.OutboxEvent;
+import com.ecom.sale.model.Payment;
+import com.ecom.sale.repository.OutboxEventRepository;
+import com.ecom.sale.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    public static final String ORDER = "ORDER";
+    public static final String PAYMENT = "PAYMENT";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderMapper orderMapper;
+    private final PaymentMapper paymentMapper;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType type, Order order) {
+        outboxEventRepository.save(event(type, ORDER, order.getId(), orderMapper.toEventDto(order)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType type, Payment payment) {
+        outboxEventRepository.save(event(type, PAYMENT, payment.getId(), paymentMapper.toDto(payment)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrders(OutboxEventType type, Collection<Order> orders) {
+        outboxEventRepository.saveAll(orders.stream()
+                .map(order -> event(type, ORDER, order.getId(), orderMapper.toEventDto(order)))
+                .toList());
+    }
+
+    private OutboxEvent event(OutboxEventType type, String aggregateType, Long aggregateId, Object payload) {
+        var event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + type + " payload for id=" + aggregateId, e);
+        }
+        return event;
+    }
+}
@@ -2,12 +2,14 @@ package com.ecom.sale.service.impl;
 
 import com.ecom.sale.dto.PaymentDto;
 import com.ecom.sale.dto.request.PaymentRequest;
+import com.ecom.sale.enums.OutboxEventType;
 import com.ecom.sale.enums.PaymentMethod;
 import com.ecom.sale.exception.CustomException;
 import com.ecom.sale.mapper.PaymentMapper;
 import com.ecom.sale.model.Payment;
 import com.ecom.sale.repository.OrderRepository;
 import com.ecom.sale.repository.PaymentRepository;
+import com.ecom.sale.service.OutboxService;
 import com.ecom.sale.service.PaymentService;
 import com.ecom.sale.util.SecurityUtils;
 import com.ecom.sale.util.ValidatorUtils;
@@ -20,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import static com.ecom.sale.enums.OrderStatus.CANCELLED;
 import static com.ecom.sale.enums.OrderStatus.NEW;
 import static com.ecom.sale.enums.OrderStatus.PAID;
 import static com.ecom.sale.enums.PaymentMethod.CASH;
@@ -35,6 +38,7 @@ public class PaymentServiceImpl implements PaymentService {
     private final OrderRepository orderRepository;
     private final PaymentMapper mapper;
     private final SecurityUtils securityUtils;
+    private final OutboxService outboxService;
 
     private static final String API = "/payments";
 
@@ -57,6 +61,7 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setTransactionId(UUID.randomUUID().toString());
 
         paymentRepository.save(payment);
+        outboxService.record(OutboxEventType.PAYMENT_CREATED, payment);
 
         log.info("Created payment: paymentId={}, orderId={}, amount={}, method={}",
                 payment.getId(), orderId, payment.getAmount(), payment.getPaymentMethod());
@@ -66,7 +71,7 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     @Transactional
     public void deletePayment(Long paymentId) {
-        var currentUser = securityUtils.getCurrentUser(API);
+        var currentUser = securityUtils.getCurrentPrincipal(API);
         var payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Payment not found with id=" + paymentId));
 
@@ -74,9 +79,13 @@ public class PaymentServiceImpl implements PaymentService {
         securityUtils.validateAccess(currentUser, order.getUser().getId(), API);
 
         order.setPayment(null);
-        order.setStatus(NEW);
+        if (order.getStatus() == PAID) {
+            order.setStatus(NEW);
+        }
         order.setPaidAt(null);
         orderRepository.save(order);
+        outboxService.record(OutboxEventType.PAYMENT_DELETED, payment);
+        outboxService.record(OutboxEventType.ORDER_UPDATED, order);
 
         paymentRepository.delete(payment);
 
@@ -86,10 +95,14 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     @Transactional
     public PaymentDto pay(Long orderId, PaymentRequest request) {
-        var currentUser = securityUtils.getCurrentUser(API);
-        var order = orderRepository.findById(orderId)
+        var currentUser = securityUtils.getCurrentPrincipal(API);
+        var order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> exception(HttpStatus.NOT_FOUND, "Order not found with id=" + orderId));
-        securityUtils.hasPermission(currentUser, order.getUser(), API);
+        securityUtils.hasPermission(currentUser, order.getUser().getId(), API);
+
+        if (order.getStatus() == CANCELLED) {
+            throw exception(HttpStatus.BAD_REQUEST, "Order has been cancelled");
+        }
 
         var payment = order.getPayment();
         if (payment == null) {
@@ -103,6 +116,8 @@ public class PaymentServiceImpl implements PaymentService {
 
         orderRepository.save(order);
         paymentRepository.save(payment);
+        outboxService.record(OutboxEventType.PAYMENT_PAID, payment);
+        outboxService.record(OutboxEventType.ORDER_PAID, order);
 
         log.info("Payment approved: paymentId={}, orderId={}, amount={}",
                 payment.getId(), orderId, payment.getAmount());
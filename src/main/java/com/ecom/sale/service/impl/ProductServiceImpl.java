@@ -1,8 +1,10 @@
 package com.ecom.sale.service.impl;
 
+import com.ecom.sale.dto.CursorPageDto;
 import com.ecom.sale.dto.ProductDto;
 import com.ecom.sale.dto.ProductSearchCriteria;
 import com.ecom.sale.dto.request.ProductRequest;
+import com.ecom.sale.exception.ConflictException;
 import com.ecom.sale.exception.CustomException;
 import com.ecom.sale.mapper.ProductMapper;
 import com.ecom.sale.model.Product;
@@ -10,13 +12,20 @@ import com.ecom.sale.repository.CategoryRepository;
 import com.ecom.sale.repository.OrderItemRepository;
 import com.ecom.sale.repository.ProductRepository;
 import com.ecom.sale.repository.specification.builder.ProductSpecificationBuilder;
+import com.ecom.sale.service.InventoryService;
 import com.ecom.sale.service.ProductService;
+import com.ecom.sale.util.CursorUtils;
+import com.ecom.sale.util.OptimisticRetry;
+import com.ecom.sale.util.SecurityUtils;
 import com.ecom.sale.util.UpdateUtils;
 import com.ecom.sale.util.ValidatorUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +43,12 @@ public class ProductServiceImpl implements ProductService {
     private final OrderItemRepository orderItemRepository;
     private final ProductMapper mapper;
     private final UpdateUtils updateUtils;
+    private final InventoryService inventoryService;
+    private final SecurityUtils securityUtils;
+    private final OptimisticRetry optimisticRetry;
+
+    @Value("${inventory.hot.max-buckets:64}")
+    private int maxStockBuckets;
 
     private static final String API = "/products";
 
@@ -59,11 +74,18 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    public ProductDto updateProduct(Long id, ProductRequest request) {
+    public ProductDto updateProduct(Long id, ProductRequest request, String ifMatch) {
+        var expectedVersion = expectedVersion(request, ifMatch);
         var product = getProductOrThrow(id);
         var category = getCategoryOrThrow(request.getCategoryId());
         validateProduct(request);
 
+        // the request carries absolute values, so it may only replace the version the client has seen
+        if (!product.getVersion().equals(expectedVersion)) {
+            throw new ConflictException(API, "Product was modified since version " + expectedVersion
+                    + ", reload it and try again");
+        }
+
         if (!product.getCategory().getId().equals(category.getId())) {
             product.setCategory(category);
         }
@@ -71,11 +93,39 @@ public class ProductServiceImpl implements ProductService {
         updateUtils.updateIfChanged(product::getName, product::setName, request.getName());
         updateUtils.updateIfChanged(product::getDescription, product::setDescription, request.getDescription());
         updateUtils.updateIfChanged(product::getPrice, product::setPrice, request.getPrice());
-        updateUtils.updateIfChanged(product::getQuantity, product::setQuantity, request.getQuantity());
+        if (product.isHot()) {
+            if (product.getAvailableQuantity() != request.getQuantity()) {
+                inventoryService.setStock(product, request.getQuantity());
+            }
+        } else {
+            updateUtils.updateIfChanged(product::getQuantity, product::setQuantity, request.getQuantity());
+        }
 
-        productRepository.save(product);
+        productRepository.saveAndFlush(product);
         log.info("Updated product: id={}, name='{}', category='{}', price={}, quantity={}",
-                product.getId(), product.getName(), category.getName(), product.getPrice(), product.getQuantity());
+                product.getId(), product.getName(), category.getName(), product.getPrice(), product.getAvailableQuantity());
+
+        return mapper.toDto(product);
+    }
+
+    @Override
+    public ProductDto configureStockBuckets(Long id, int buckets) {
+        securityUtils.validateAdmin(API);
+        if (buckets < 0 || buckets > maxStockBuckets) {
+            throw new CustomException(
+                    API, HttpStatus.BAD_REQUEST,
+                    "Stock buckets must be between 0 and " + maxStockBuckets, LocalDateTime.now()
+            );
+        }
+        // the new layout is computed from the stock read in the same attempt, so a retry loses nothing
+        return optimisticRetry.execute("product.stock-buckets", API, () -> applyStockBuckets(id, buckets));
+    }
+
+    private ProductDto applyStockBuckets(Long id, int buckets) {
+        var product = productRepository.findByIdForVersionedWrite(id)
+                .orElseThrow(() -> exception("Product not found with id=" + id));
+        inventoryService.configureBuckets(product, buckets);
+        productRepository.saveAndFlush(product);
 
         return mapper.toDto(product);
     }
@@ -120,6 +170,30 @@ public class ProductServiceImpl implements ProductService {
         return products;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> scrollProducts(ProductSearchCriteria criteria, String cursor, int size) {
+        var pageSize = CursorUtils.pageSize(size);
+        var afterId = cursor == null || cursor.isBlank() ? 0L : CursorUtils.decodeId(cursor, API);
+        var spec = new ProductSpecificationBuilder()
+                .withName(criteria.getName())
+                .withDescription(criteria.getDescription())
+                .withCategory(criteria.getCategoryName())
+                .withPriceFrom(criteria.getPriceFrom())
+                .withPriceTo(criteria.getPriceTo())
+                .withQuantityFrom(criteria.getQuantityFrom())
+                .withQuantityTo(criteria.getQuantityTo())
+                .withIdAfter(afterId)
+                .build();
+
+        var products = productRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("id"))
+                .limit(pageSize + 1)
+                .all());
+        log.info("Fetched {} products by cursor", Math.min(products.size(), pageSize));
+        return CursorPageDto.of(products, pageSize, mapper::toDto, product -> CursorUtils.encode(product.getId()));
+    }
+
     private Product getProductOrThrow(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> exception("Product not found with id=" + id));
@@ -130,6 +204,26 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> exception("Category not found with id=" + id));
     }
 
+    private Long expectedVersion(ProductRequest request, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            if (request.getVersion() == null) {
+                throw new CustomException(API, HttpStatus.BAD_REQUEST,
+                        "Product version is required, send it as If-Match or in the request body", LocalDateTime.now());
+            }
+            return request.getVersion();
+        }
+        var tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new CustomException(API, HttpStatus.BAD_REQUEST,
+                    "If-Match must be the product version, e.g. \"3\"", LocalDateTime.now());
+        }
+    }
+
     private void validateProduct(ProductRequest request) {
         ValidatorUtils.validatePrice(request.getPrice());
         ValidatorUtils.validateQuantity(request.getQuantity());
@@ -0,0 +1,86 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.dto.CategorySalesDto;
+import com.ecom.sale.dto.SalesRollupDto;
+import com.ecom.sale.enums.OrderStatus;
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.service.ReportService;
+import com.ecom.sale.util.SalesRollupStore;
+import com.ecom.sale.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportServiceImpl implements ReportService {
+
+    private static final String API = "/reports";
+
+    private final SalesRollupStore salesRollupStore;
+    private final SecurityUtils securityUtils;
+
+    @Value("${reports.sales.max-range-days:366}")
+    private int maxRangeDays;
+
+    @Override
+    public List<SalesRollupDto> getDailySales(LocalDate from, LocalDate to, OrderStatus status, Long categoryId) {
+        securityUtils.validateAdmin(API);
+        validateRange(from, to);
+
+        var rows = salesRollupStore.findDaily(from, to, status != null ? status.name() : null, categoryId).stream()
+                .map(row -> {
+                    var dto = new SalesRollupDto();
+                    dto.setDay(row.day());
+                    dto.setCategoryId(row.categoryId());
+                    dto.setCategoryName(row.categoryName());
+                    dto.setStatus(OrderStatus.valueOf(row.status()));
+                    dto.setUnits(row.units());
+                    dto.setRevenue(row.revenue());
+                    dto.setOrderCount(row.orders());
+                    return dto;
+                })
+                .toList();
+        log.info("Fetched daily sales: from={}, to={}, status={}, categoryId={}, rows={}",
+                from, to, status, categoryId, rows.size());
+        return rows;
+    }
+
+    @Override
+    public List<CategorySalesDto> getCategorySales(LocalDate from, LocalDate to, OrderStatus status) {
+        securityUtils.validateAdmin(API);
+        validateRange(from, to);
+
+        var rows = salesRollupStore.sumByCategory(from, to, status != null ? status.name() : null).stream()
+                .map(row -> {
+                    var dto = new CategorySalesDto();
+                    dto.setCategoryId(row.categoryId());
+                    dto.setCategoryName(row.categoryName());
+                    dto.setUnits(row.units());
+                    dto.setRevenue(row.revenue());
+                    dto.setOrderCount(row.orders());
+                    return dto;
+                })
+                .toList();
+        log.info("Fetched category sales: from={}, to={}, status={}, rows={}", from, to, status, rows.size());
+        return rows;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new CustomException(API, HttpStatus.BAD_REQUEST, "'from' must be before 'to'", LocalDateTime.now());
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxRangeDays) {
+            throw new CustomException(API, HttpStatus.BAD_REQUEST,
+                    "Range must not be longer than " + maxRangeDays + " days", LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.dto.OrderEventDto;
+import com.ecom.sale.dto.OrderItemDto;
+import com.ecom.sale.dto.OutboxMessage;
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.service.OutboxSubscriber;
+import com.ecom.sale.util.SalesRollupStore;
+import com.ecom.sale.util.SalesRollupStore.Delta;
+import com.ecom.sale.util.SalesRollupStore.Line;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps sales_daily_rollups current from order snapshots. Every order event replaces what the order
+ * contributed before, so the result does not depend on which events were seen, only on the last one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SalesRollupSubscriber implements OutboxSubscriber {
+
+    private final SalesRollupStore salesRollupStore;
+    private final ObjectMapper objectMapper;
+
+    private record Key(LocalDate day, long categoryId, String status) {
+    }
+
+    @Override
+    public String name() {
+        return "sales-rollups";
+    }
+
+    @Override
+    public void onEvents(List<OutboxMessage> events) {
+        // only the latest snapshot of each order matters; null marks a deleted order
+        var latest = new HashMap<Long, OrderEventDto>();
+        for (var event : events) {
+            if (OutboxServiceImpl.ORDER.equals(event.aggregateType())) {
+                latest.put(event.aggregateId(), event.eventType() == OutboxEventType.ORDER_DELETED ? null : read(event));
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        var orders = latest.values().stream().filter(Objects::nonNull).toList();
+        var categoryIds = salesRollupStore.findCategoryIds(orders.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .map(OrderItemDto::getProductId)
+                .collect(Collectors.toSet()));
+        var current = new ArrayList<Line>();
+        orders.forEach(order -> current.addAll(lines(order, categoryIds)));
+        var previous = salesRollupStore.findLines(latest.keySet());
+
+        var deltas = new TreeMap<Key, Delta>(Comparator.comparing(Key::day)
+                .thenComparingLong(Key::categoryId)
+                .thenComparing(Key::status));
+        previous.forEach(line -> merge(deltas, line, -1));
+        current.forEach(line -> merge(deltas, line, 1));
+
+        salesRollupStore.replaceLines(latest.keySet(), current);
+        salesRollupStore.apply(deltas.values().stream()
+                .filter(delta -> delta.units() != 0 || delta.revenue().signum() != 0 || delta.orders() != 0)
+                .toList());
+        log.debug("Applied sales rollups for {} orders: {} rollup rows changed", latest.size(), deltas.size());
+    }
+
+    private List<Line> lines(OrderEventDto order, Map<Long, Long> categoryIds) {
+        var day = LocalDate.ofInstant(order.getCreatedDate(), ZoneId.systemDefault());
+        var units = new HashMap<Long, Long>();
+        var revenue = new HashMap<Long, BigDecimal>();
+        for (var item : order.getOrderItems()) {
+            var categoryId = categoryIds.get(item.getProductId());
+            if (categoryId == null) {
+                log.warn("Skipping item of unknown product id={} in order id={}", item.getProductId(), order.getId());
+                continue;
+            }
+            units.merge(categoryId, item.getQuantity().longValue(), Long::sum);
+            revenue.merge(categoryId, item.getTotalPrice(), BigDecimal::add);
+        }
+        return units.keySet().stream()
+                .map(categoryId -> new Line(order.getId(), categoryId, day, order.getStatus().name(),
+                        units.get(categoryId), revenue.get(categoryId)))
+                .toList();
+    }
+
+    private void merge(Map<Key, Delta> deltas, Line line, int sign) {
+        var key = new Key(line.day(), line.categoryId(), line.status());
+        var change = new Delta(line.day(), line.categoryId(), line.status(),
+                sign * line.units(), line.revenue().multiply(BigDecimal.valueOf(sign)), sign);
+        deltas.merge(key, change, (a, b) -> new Delta(a.day(), a.categoryId(), a.status(),
+                a.units() + b.units(), a.revenue().add(b.revenue()), a.orders() + b.orders()));
+    }
+
+    private OrderEventDto read(OutboxMessage event) {
+        try {
+            return objectMapper.readValue(event.payload(), OrderEventDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload of outbox event id=" + event.id(), e);
+        }
+    }
+}
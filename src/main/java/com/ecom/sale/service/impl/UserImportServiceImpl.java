@@ -0,0 +1,335 @@
+package com.ecom.sale.service.impl;
+
+import com.ecom.sale.config.BoundedPasswordEncoder;
+import com.ecom.sale.dto.UserImportErrorDto;
+import com.ecom.sale.dto.UserImportReportDto;
+import com.ecom.sale.dto.request.UserImportRow;
+import com.ecom.sale.enums.Role;
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.repository.RoleRepository;
+import com.ecom.sale.repository.UserRepository;
+import com.ecom.sale.service.UserImportService;
+import com.ecom.sale.util.SecurityUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String API = "/users/import";
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String INSERT_USER = """
+            INSERT INTO users (id, username, password, email, phone, bio, token_version, created_date, updated_date)
+            VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)
+            ON CONFLICT DO NOTHING""";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final SecurityUtils securityUtils;
+
+    @Value("${users.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${users.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public UserImportReportDto importUsers(InputStream input, String contentType) {
+        securityUtils.validateAdmin(API);
+        var format = resolveFormat(contentType);
+        var roleId = roleRepository.findByName(Role.ROLE_USER.name())
+                .orElseThrow(() -> {
+                    log.error("Default role not found");
+                    return exception(HttpStatus.NOT_FOUND, "Default role not found");
+                })
+                .getId();
+
+        var report = new UserImportReportDto();
+        var seen = new SeenKeys();
+        var chunk = new ArrayList<ParsedRow>(chunkSize);
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+                report.setTotal(report.getTotal() + 1);
+                try {
+                    var row = format == Format.CSV ? parseCsvRow(header, line) : objectMapper.readValue(line, UserImportRow.class);
+                    chunk.add(new ParsedRow(lineNumber, row));
+                } catch (Exception e) {
+                    reject(report, lineNumber, null, "Malformed row");
+                }
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, roleId, seen, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read user import stream", e);
+            throw exception(HttpStatus.BAD_REQUEST, "Failed to read import file");
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, roleId, seen, report);
+        }
+
+        log.info("User import finished: total={}, imported={}, failed={}",
+                report.getTotal(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void importChunk(List<ParsedRow> chunk, Long roleId, SeenKeys seen, UserImportReportDto report) {
+        var candidates = new ArrayList<ParsedRow>(chunk.size());
+        for (var parsed : chunk) {
+            var row = parsed.row();
+            var violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                reject(report, parsed.line(), row.getUsername(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            } else if (!seen.usernames.add(row.getUsername())) {
+                reject(report, parsed.line(), row.getUsername(), "Duplicate username in file");
+            } else if (!seen.emails.add(row.getEmail())) {
+                reject(report, parsed.line(), row.getUsername(), "Duplicate email in file");
+            } else if (!seen.phones.add(row.getPhone())) {
+                reject(report, parsed.line(), row.getUsername(), "Duplicate phone in file");
+            } else {
+                candidates.add(parsed);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        var existingUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                candidates.stream().map(p -> p.row().getUsername()).toList()));
+        var existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                candidates.stream().map(p -> p.row().getEmail()).toList()));
+        var existingPhones = new HashSet<>(userRepository.findExistingPhones(
+                candidates.stream().map(p -> p.row().getPhone()).toList()));
+
+        var accepted = new ArrayList<ParsedRow>(candidates.size());
+        for (var parsed : candidates) {
+            var row = parsed.row();
+            if (existingUsernames.contains(row.getUsername())) {
+                reject(report, parsed.line(), row.getUsername(), "Username already taken");
+            } else if (existingEmails.contains(row.getEmail())) {
+                reject(report, parsed.line(), row.getUsername(), "Email already taken");
+            } else if (existingPhones.contains(row.getPhone())) {
+                reject(report, parsed.line(), row.getUsername(), "Phone already taken");
+            } else {
+                accepted.add(parsed);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        var hashes = passwordEncoder.encodeAll(accepted.stream().map(p -> p.row().getPassword()).toList());
+        var inserted = transactionTemplate.execute(status -> insertUsers(accepted, hashes, roleId));
+
+        for (var parsed : accepted) {
+            if (!inserted.contains(parsed.row().getUsername())) {
+                reject(report, parsed.line(), parsed.row().getUsername(), "Username, email or phone already taken");
+            }
+        }
+        report.setImported(report.getImported() + inserted.size());
+    }
+
+    private Set<String> insertUsers(List<ParsedRow> rows, List<String> hashes, Long roleId) {
+        var ids = allocateUserIds(rows.size());
+        var now = Timestamp.from(Instant.now());
+        var indexes = new ArrayList<Integer>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            indexes.add(i);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, indexes, chunkSize, (ps, i) -> {
+            var row = rows.get(i).row();
+            ps.setLong(1, ids.get(i));
+            ps.setString(2, row.getUsername());
+            ps.setString(3, hashes.get(i));
+            ps.setString(4, row.getEmail());
+            ps.setString(5, row.getPhone());
+            ps.setString(6, row.getBio());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+
+        // ON CONFLICT DO NOTHING silently skips rows that lost a race with a concurrent registration
+        var insertedIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE id = ANY(?)", Long.class, (Object) ids.toArray(Long[]::new));
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, insertedIds, chunkSize, (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setLong(2, roleId);
+        });
+
+        var insertedIdSet = new HashSet<>(insertedIds);
+        var usernames = new HashSet<String>(insertedIds.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (insertedIdSet.contains(ids.get(i))) {
+                usernames.add(rows.get(i).row().getUsername());
+            }
+        }
+        return usernames;
+    }
+
+    private List<Long> allocateUserIds(int count) {
+        // user_seq_gen is a pooled sequence: each value is the upper end of a block of ID_BLOCK_SIZE ids
+        var blocks = jdbcTemplate.queryForList(
+                "SELECT nextval('user_seq_gen') FROM generate_series(1, ?)", Long.class,
+                (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+        var ids = new ArrayList<Long>(count);
+        for (var hi : blocks) {
+            for (long id = hi - ID_BLOCK_SIZE + 1; id <= hi && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        var columns = splitCsv(line);
+        var header = new HashMap<String, Integer>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (var required : List.of("username", "password", "email", "phone")) {
+            if (!header.containsKey(required)) {
+                throw exception(HttpStatus.BAD_REQUEST, "CSV header is missing column: " + required);
+            }
+        }
+        return header;
+    }
+
+    private UserImportRow parseCsvRow(Map<String, Integer> header, String line) {
+        var values = splitCsv(line);
+        var row = new UserImportRow();
+        row.setUsername(column(values, header, "username"));
+        row.setPassword(column(values, header, "password"));
+        row.setEmail(column(values, header, "email"));
+        row.setPhone(column(values, header, "phone"));
+        row.setBio(column(values, header, "bio"));
+        return row;
+    }
+
+    private String column(List<String> values, Map<String, Integer> header, String name) {
+        var index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        var value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> splitCsv(String line) {
+        var values = new ArrayList<String>();
+        var current = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private void reject(UserImportReportDto report, long line, String username, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new UserImportErrorDto(line, username, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private Format resolveFormat(String contentType) {
+        if (contentType != null) {
+            var type = contentType.toLowerCase(Locale.ROOT);
+            if (type.contains("csv")) {
+                return Format.CSV;
+            }
+            if (type.contains("ndjson") || type.contains("json")) {
+                return Format.NDJSON;
+            }
+        }
+        throw exception(HttpStatus.BAD_REQUEST, "Unsupported import format, expected text/csv or application/x-ndjson");
+    }
+
+    private CustomException exception(HttpStatus status, String message) {
+        return new CustomException(API, status, message, LocalDateTime.now());
+    }
+
+    private enum Format {
+        CSV, NDJSON
+    }
+
+    private record ParsedRow(long line, UserImportRow row) {
+    }
+
+    private static class SeenKeys {
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> phones = new HashSet<>();
+    }
+}
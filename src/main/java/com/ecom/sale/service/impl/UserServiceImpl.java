@@ -1,5 +1,6 @@
 package com.ecom.sale.service.impl;
 
+import com.ecom.sale.dto.CursorPageDto;
 import com.ecom.sale.dto.UserDto;
 import com.ecom.sale.dto.UserSearchCriteria;
 import com.ecom.sale.dto.request.UserUpdateRequest;
@@ -9,12 +10,15 @@ import com.ecom.sale.model.User;
 import com.ecom.sale.repository.UserRepository;
 import com.ecom.sale.repository.specification.builder.UserSpecificationBuilder;
 import com.ecom.sale.service.UserService;
+import com.ecom.sale.util.CursorUtils;
 import com.ecom.sale.util.SecurityUtils;
+import com.ecom.sale.util.TokenVersionRegistry;
 import com.ecom.sale.util.UpdateUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
@@ -31,6 +35,8 @@ public class UserServiceImpl implements UserService {
     private final UpdateUtils updateUtils;
     private final SecurityUtils securityUtils;
     private final UserMapper userMapper;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CustomUserDetailService userDetailService;
 
     private static final String API = "/users";
 
@@ -57,11 +63,32 @@ public class UserServiceImpl implements UserService {
         return users;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserDto> scrollUsers(UserSearchCriteria criteria, String cursor, int size) {
+        var pageSize = CursorUtils.pageSize(size);
+        var afterId = cursor == null || cursor.isBlank() ? 0L : CursorUtils.decodeId(cursor, API);
+        var spec = new UserSpecificationBuilder()
+                .withUsername(criteria.getUsername())
+                .withEmail(criteria.getEmail())
+                .withPhone(criteria.getPhone())
+                .withRole(criteria.getRole())
+                .withIdAfter(afterId)
+                .build();
+
+        var users = userRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("id"))
+                .limit(pageSize + 1)
+                .all());
+        log.info("Fetched {} users by cursor", Math.min(users.size(), pageSize));
+        return CursorPageDto.of(users, pageSize, userMapper::toDto, user -> CursorUtils.encode(user.getId()));
+    }
+
     @Override
     @Transactional
     @PreAuthorize("hasRole('ROLE_ADMIN') or #id == authentication.principal.id")
     public UserDto updateUser(Long id, UserUpdateRequest request) {
-        var currentUser = securityUtils.getCurrentUser(API);
+        var currentUser = securityUtils.getCurrentPrincipal(API);
         securityUtils.validateAccess(currentUser, id, API);
 
         var user = getUserOrThrow(id);
@@ -72,6 +99,7 @@ public class UserServiceImpl implements UserService {
         updateUtils.updateIfChanged(user::getBio, user::setBio, request.getBio());
 
         var updated = userRepository.save(user);
+        userDetailService.evict(user.getUsername());
         log.info("Updated user: id={}", id);
         return userMapper.toDto(updated);
     }
@@ -87,6 +115,8 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.delete(user);
+        tokenVersionRegistry.invalidateAfterCommit(id);
+        userDetailService.evict(user.getUsername());
         log.info("Deleted user: id={}", id);
     }
 
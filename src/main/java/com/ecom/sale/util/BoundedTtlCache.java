@@ -0,0 +1,98 @@
+package com.ecom.sale.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BoundedTtlCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (maxSize <= 0 || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int purgeExpired() {
+        var now = System.currentTimeMillis();
+        var removed = 0;
+        for (var e : entries.entrySet()) {
+            if (e.getValue().isExpired(now) && entries.remove(e.getKey(), e.getValue())) {
+                removed++;
+            }
+        }
+        evictions.add(removed);
+        return removed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void makeRoom() {
+        purgeExpired();
+        var iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.exception.CustomException;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@UtilityClass
+public class CursorUtils {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    public String encode(Object... keys) {
+        var raw = Arrays.stream(keys).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public List<String> decode(String cursor, int keys, String api) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length == keys) {
+                return List.of(parts);
+            }
+        } catch (IllegalArgumentException ignored) {
+            // reported below as an invalid cursor
+        }
+        throw new CustomException(api, HttpStatus.BAD_REQUEST, "Invalid cursor", LocalDateTime.now());
+    }
+
+    public Long decodeId(String cursor, String api) {
+        try {
+            return Long.valueOf(decode(cursor, 1, api).get(0));
+        } catch (NumberFormatException e) {
+            throw new CustomException(api, HttpStatus.BAD_REQUEST, "Invalid cursor", LocalDateTime.now());
+        }
+    }
+
+    public int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
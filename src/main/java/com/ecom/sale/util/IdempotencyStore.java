@@ -0,0 +1,79 @@
+package com.ecom.sale.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    private static final String CLAIM = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint, status, created_date, expires_at)
+            VALUES (?, ?, ?, 'IN_PROGRESS', LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => ?))
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE
+            SET fingerprint = EXCLUDED.fingerprint, status = 'IN_PROGRESS', response_status = NULL,
+                content_type = NULL, response_body = NULL,
+                created_date = EXCLUDED.created_date, expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at < LOCALTIMESTAMP""";
+
+    private static final String FIND = """
+            SELECT fingerprint, status, response_status, content_type, response_body FROM idempotency_keys
+            WHERE user_id = ? AND idempotency_key = ? AND expires_at >= LOCALTIMESTAMP""";
+
+    private static final String COMPLETE = """
+            UPDATE idempotency_keys
+            SET status = 'COMPLETED', response_status = ?, content_type = ?, response_body = ?,
+                expires_at = LOCALTIMESTAMP + make_interval(secs => ?)
+            WHERE user_id = ? AND idempotency_key = ?""";
+
+    private static final String RELEASE =
+            "DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND status = 'IN_PROGRESS'";
+
+    private static final String PURGE = """
+            DELETE FROM idempotency_keys WHERE (user_id, idempotency_key) IN (
+                SELECT user_id, idempotency_key FROM idempotency_keys
+                WHERE expires_at < LOCALTIMESTAMP
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record StoredResponse(String fingerprint, int status, String contentType, String body) {
+    }
+
+    public record Entry(String fingerprint, boolean completed, StoredResponse response) {
+    }
+
+    public boolean claim(Long userId, String key, String fingerprint, Duration lease) {
+        return jdbcTemplate.update(CLAIM, userId, key, fingerprint, lease.toSeconds()) == 1;
+    }
+
+    public Optional<Entry> find(Long userId, String key) {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> {
+            var fingerprint = rs.getString("fingerprint");
+            var completed = "COMPLETED".equals(rs.getString("status"));
+            var response = completed
+                    ? new StoredResponse(fingerprint, rs.getInt("response_status"),
+                            rs.getString("content_type"), rs.getString("response_body"))
+                    : null;
+            return new Entry(fingerprint, completed, response);
+        }, userId, key).stream().findFirst();
+    }
+
+    public void complete(Long userId, String key, StoredResponse response, Duration ttl) {
+        jdbcTemplate.update(COMPLETE, response.status(), response.contentType(), response.body(),
+                ttl.toSeconds(), userId, key);
+    }
+
+    public void release(Long userId, String key) {
+        jdbcTemplate.update(RELEASE, userId, key);
+    }
+
+    public int purgeExpired(int batchSize) {
+        return jdbcTemplate.update(PURGE, batchSize);
+    }
+}
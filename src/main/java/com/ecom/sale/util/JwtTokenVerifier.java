@@ -0,0 +1,48 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.dto.AccessTokenClaims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtTokenVerifier {
+
+    private final JwtUtils jwtUtils;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private BoundedTtlCache<String, AccessTokenClaims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = new BoundedTtlCache<>(verifiedCacheMaxSize);
+    }
+
+    public Optional<AccessTokenClaims> verifyAccessToken(String token) {
+        var tokenHash = HashUtils.sha256Hex(token);
+        var cached = verifiedTokens.get(tokenHash);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            var claims = jwtUtils.parseToken(token, false);
+            var verified = jwtUtils.toAccessTokenClaims(claims);
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(tokenHash, verified, claims.getExpiration().getTime());
+            }
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected access token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
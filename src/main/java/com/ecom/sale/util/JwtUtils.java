@@ -1,22 +1,33 @@
 package com.ecom.sale.util;
 
+import com.ecom.sale.dto.AccessTokenClaims;
+import com.ecom.sale.dto.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtils {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.access.secret}")
     private String accessSecretKey;
 
@@ -29,22 +40,34 @@ public class JwtUtils {
     @Value("${jwt.refresh.expiration}")
     private long refreshTokenExpirationInMs;
 
-    private Key getAccessSigningKey() {
-        return Keys.hmacShaKeyFor(accessSecretKey.getBytes());
-    }
-
-    private Key getRefreshSigningKey() {
-        return Keys.hmacShaKeyFor(refreshSecretKey.getBytes());
+    private Key accessSigningKey;
+    private Key refreshSigningKey;
+    private JwtParser accessTokenParser;
+    private JwtParser refreshTokenParser;
+
+    @PostConstruct
+    void init() {
+        accessSigningKey = Keys.hmacShaKeyFor(accessSecretKey.getBytes());
+        refreshSigningKey = Keys.hmacShaKeyFor(refreshSecretKey.getBytes());
+        accessTokenParser = Jwts.parserBuilder().setSigningKey(accessSigningKey).build();
+        refreshTokenParser = Jwts.parserBuilder().setSigningKey(refreshSigningKey).build();
     }
 
-    public String generateAccessToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails, accessTokenExpirationInMs, getAccessSigningKey());
+    public String generateAccessToken(UserPrincipal principal) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, principal.getId());
+        claims.put(ROLES_CLAIM, List.copyOf(principal.getRoles()));
+        claims.put(TOKEN_VERSION_CLAIM, principal.getTokenVersion());
+        return generateToken(claims, principal, accessTokenExpirationInMs, accessSigningKey);
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "refresh");
-        return generateToken(claims, userDetails, refreshTokenExpirationInMs, getRefreshSigningKey());
+        // iat/exp have one-second resolution; without a unique id a refresh in the same second as login
+        // would reissue the token it just revoked
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        return generateToken(claims, userDetails, refreshTokenExpirationInMs, refreshSigningKey);
     }
 
     private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration, Key signingKey) {
@@ -57,6 +80,20 @@ public class JwtUtils {
                 .compact();
     }
 
+    public Claims parseToken(String token, boolean isRefreshToken) {
+        var parser = isRefreshToken ? refreshTokenParser : accessTokenParser;
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    public AccessTokenClaims toAccessTokenClaims(Claims claims) {
+        var userId = claims.get(USER_ID_CLAIM) instanceof Number number ? number.longValue() : null;
+        var tokenVersion = claims.get(TOKEN_VERSION_CLAIM) instanceof Number number ? number.intValue() : null;
+        var roles = claims.get(ROLES_CLAIM) instanceof Collection<?> values
+                ? values.stream().map(String::valueOf).toList()
+                : null;
+        return new AccessTokenClaims(claims.getSubject(), userId, tokenVersion, roles);
+    }
+
     public String extractUsername(String token, boolean isRefreshToken) {
         return extractClaim(token, Claims::getSubject, isRefreshToken);
     }
@@ -66,24 +103,11 @@ public class JwtUtils {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver, boolean isRefreshToken) {
-        final Claims claims = extractAllClaims(token, isRefreshToken);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token, boolean isRefreshToken) {
-        return Jwts.parserBuilder()
-                .setSigningKey(isRefreshToken ? getRefreshSigningKey() : getAccessSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private boolean isTokenExpired(String token, boolean isRefreshToken) {
-        return extractExpiration(token, isRefreshToken).before(new Date());
+        return claimsResolver.apply(parseToken(token, isRefreshToken));
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails, boolean isRefreshToken) {
-        final String username = extractUsername(token, isRefreshToken);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token, isRefreshToken);
+        final var claims = parseToken(token, isRefreshToken);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.exception.ConflictException;
+import com.ecom.sale.exception.CustomException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${optimistic-retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${optimistic-retry.initial-backoff:PT0.01S}")
+    private Duration initialBackoff;
+
+    @Value("${optimistic-retry.max-backoff:PT0.2S}")
+    private Duration maxBackoff;
+
+    /**
+     * Runs the action in its own transaction and re-runs it from scratch when the commit
+     * loses a version check. Must be called outside of a transaction, otherwise a retry
+     * would reuse the persistence context holding the stale entity.
+     */
+    public <T> T execute(String operation, String api, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Optimistic retry must not run inside a transaction: " + operation);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                var result = transactionTemplate.execute(status -> action.get());
+                if (attempt > 1) {
+                    counter(operation, "succeeded").increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    counter(operation, "exhausted").increment();
+                    log.warn("Giving up {} after {} conflicting attempts", operation, attempt);
+                    throw new ConflictException(api, "The resource was modified concurrently, try again");
+                }
+                counter(operation, "retried").increment();
+                log.debug("Version conflict in {}, attempt {}/{}", operation, attempt, maxAttempts);
+                sleep(attempt, api);
+            }
+        }
+    }
+
+    private void sleep(int attempt, String api) {
+        // full jitter: uniform in [0, min(max, initial * 2^(attempt - 1))]
+        var ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(api, HttpStatus.SERVICE_UNAVAILABLE, "Request was interrupted", LocalDateTime.now());
+        }
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder("optimistic.retry")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
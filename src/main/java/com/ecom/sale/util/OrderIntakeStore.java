@@ -0,0 +1,122 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.enums.OrderIntakeStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class OrderIntakeStore {
+
+    private static final String INSERT = """
+            INSERT INTO order_intakes (id, user_id, payload, status, created_date, updated_date)
+            VALUES (?, ?, ?, 'QUEUED', LOCALTIMESTAMP, LOCALTIMESTAMP)""";
+
+    private static final String DELETE = "DELETE FROM order_intakes WHERE id = ? AND status = 'QUEUED'";
+
+    private static final String FIND =
+            "SELECT id, status, order_id, error FROM order_intakes WHERE id = ? AND user_id = ?";
+
+    // id order keeps row lock order consistent between workers holding overlapping batches
+    private static final String LOCK_QUEUED = """
+            SELECT id FROM order_intakes
+            WHERE id = ANY(?) AND status = 'QUEUED'
+            ORDER BY id
+            FOR UPDATE""";
+
+    private static final String RESOLVE = """
+            UPDATE order_intakes SET status = ?, order_id = ?, error = ?, updated_date = LOCALTIMESTAMP
+            WHERE id = ? AND status = 'QUEUED'""";
+
+    /*
+     * Touching updated_date hands the intake to the caller for another stale period, so instances
+     * recovering at the same time do not queue it twice.
+     */
+    private static final String CLAIM_STALE = """
+            UPDATE order_intakes SET updated_date = LOCALTIMESTAMP
+            WHERE id IN (
+                SELECT id FROM order_intakes
+                WHERE status = 'QUEUED' AND updated_date < LOCALTIMESTAMP - make_interval(secs => ?)
+                ORDER BY updated_date
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, user_id, payload""";
+
+    private static final String PURGE = """
+            DELETE FROM order_intakes WHERE id IN (
+                SELECT id FROM order_intakes
+                WHERE status <> 'QUEUED' AND updated_date < LOCALTIMESTAMP - make_interval(secs => ?)
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Entry(String intakeId, OrderIntakeStatus status, Long orderId, String error) {
+    }
+
+    public record Queued(String intakeId, Long userId, String payload) {
+    }
+
+    public record Resolution(String intakeId, OrderIntakeStatus status, Long orderId, String error) {
+    }
+
+    public void insert(String intakeId, Long userId, String payload) {
+        jdbcTemplate.update(INSERT, intakeId, userId, payload);
+    }
+
+    public void delete(String intakeId) {
+        jdbcTemplate.update(DELETE, intakeId);
+    }
+
+    public Optional<Entry> find(String intakeId, Long userId) {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> new Entry(
+                rs.getString("id"),
+                OrderIntakeStatus.valueOf(rs.getString("status")),
+                rs.getObject("order_id", Long.class),
+                rs.getString("error")
+        ), intakeId, userId).stream().findFirst();
+    }
+
+    /**
+     * Locks the intakes that are still queued for the current transaction and returns their ids.
+     * An intake missing from the result was already resolved by another worker.
+     */
+    public Set<String> lockQueued(Collection<String> intakeIds) {
+        return new HashSet<>(jdbcTemplate.queryForList(LOCK_QUEUED, String.class,
+                (Object) intakeIds.toArray(String[]::new)));
+    }
+
+    public void resolve(List<Resolution> resolutions) {
+        jdbcTemplate.batchUpdate(RESOLVE, resolutions, resolutions.size(), (ps, resolution) -> {
+            ps.setString(1, resolution.status().name());
+            if (resolution.orderId() != null) {
+                ps.setLong(2, resolution.orderId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setString(3, resolution.error());
+            ps.setString(4, resolution.intakeId());
+        });
+    }
+
+    public List<Queued> claimStale(Duration staleAfter, int limit) {
+        return jdbcTemplate.query(CLAIM_STALE, (rs, rowNum) -> new Queued(
+                rs.getString("id"),
+                rs.getLong("user_id"),
+                rs.getString("payload")
+        ), staleAfter.toSeconds(), limit);
+    }
+
+    public int purgeResolved(Duration retention, int batchSize) {
+        return jdbcTemplate.update(PURGE, retention.toSeconds(), batchSize);
+    }
+}
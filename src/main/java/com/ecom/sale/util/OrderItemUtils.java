@@ -0,0 +1,33 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.model.Order;
+import com.ecom.sale.model.OrderItem;
+import com.ecom.sale.model.Product;
+import lombok.experimental.UtilityClass;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@UtilityClass
+public class OrderItemUtils {
+
+    public OrderItem buildOrderItem(Order order, Product product, int quantity) {
+        var item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        setQuantity(item, product.getPrice(), quantity);
+        return item;
+    }
+
+    public void setQuantity(OrderItem item, BigDecimal unitPrice, int quantity) {
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice);
+        item.setTotalPrice(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    public BigDecimal calculateTotalAmount(Collection<OrderItem> items) {
+        return items.stream()
+                .map(OrderItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.dto.OutboxMessage;
+import com.ecom.sale.enums.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxStore {
+
+    private static final String CREATE_CHECKPOINT = """
+            INSERT INTO outbox_checkpoints (consumer, last_transaction_id, last_event_id, updated_date)
+            VALUES (?, 0, 0, LOCALTIMESTAMP)
+            ON CONFLICT (consumer) DO NOTHING""";
+
+    private static final String LOCK_CHECKPOINT = """
+            SELECT last_transaction_id, last_event_id FROM outbox_checkpoints
+            WHERE consumer = ?
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String FIND_CHECKPOINTS =
+            "SELECT consumer, last_transaction_id, last_event_id FROM outbox_checkpoints";
+
+    private static final String ADVANCE_CHECKPOINT = """
+            UPDATE outbox_checkpoints SET last_transaction_id = ?, last_event_id = ?, updated_date = LOCALTIMESTAMP
+            WHERE consumer = ?""";
+
+    /*
+     * Only transactions below the snapshot's xmin are finished, so nothing can still commit behind
+     * the returned events and a checkpoint never skips over them.
+     */
+    private static final String FETCH = """
+            SELECT id, transaction_id, aggregate_type, aggregate_id, event_type, payload, created_date
+            FROM outbox_events
+            WHERE (transaction_id, id) > (?, ?)
+              AND transaction_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY transaction_id, id
+            LIMIT ?""";
+
+    private static final String PURGE = """
+            DELETE FROM outbox_events WHERE id IN (
+                SELECT id FROM outbox_events
+                WHERE (transaction_id, id) <= (?, ?)
+                  AND created_date < LOCALTIMESTAMP - make_interval(secs => ?)
+                LIMIT ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Checkpoint(long transactionId, long eventId) {
+    }
+
+    /**
+     * Locks the consumer's checkpoint for the current transaction, creating it at the start of the
+     * stream on first use. Empty when another relay instance holds it.
+     */
+    public Optional<Checkpoint> lockCheckpoint(String consumer) {
+        jdbcTemplate.update(CREATE_CHECKPOINT, consumer);
+        return jdbcTemplate.query(LOCK_CHECKPOINT,
+                (rs, rowNum) -> new Checkpoint(rs.getLong("last_transaction_id"), rs.getLong("last_event_id")),
+                consumer).stream().findFirst();
+    }
+
+    public List<OutboxMessage> fetch(Checkpoint after, int limit) {
+        return jdbcTemplate.query(FETCH, (rs, rowNum) -> new OutboxMessage(
+                rs.getLong("id"),
+                rs.getLong("transaction_id"),
+                rs.getString("aggregate_type"),
+                rs.getLong("aggregate_id"),
+                OutboxEventType.valueOf(rs.getString("event_type")),
+                rs.getString("payload"),
+                rs.getTimestamp("created_date").toInstant()
+        ), after.transactionId(), after.eventId(), limit);
+    }
+
+    public void advance(String consumer, OutboxMessage last) {
+        jdbcTemplate.update(ADVANCE_CHECKPOINT, last.transactionId(), last.id(), consumer);
+    }
+
+    /**
+     * Deletes events every listed consumer has passed and that are older than the retention.
+     * A consumer without a checkpoint yet holds back everything.
+     */
+    public int purgeConsumed(Collection<String> consumers, Duration retention, int limit) {
+        var checkpoints = jdbcTemplate.query(FIND_CHECKPOINTS, (rs, rowNum) -> Map.entry(rs.getString("consumer"),
+                        new Checkpoint(rs.getLong("last_transaction_id"), rs.getLong("last_event_id")))).stream()
+                .filter(entry -> consumers.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        if (checkpoints.size() < consumers.size()) {
+            return 0;
+        }
+        var oldest = checkpoints.stream()
+                .min(Comparator.comparingLong(Checkpoint::transactionId).thenComparingLong(Checkpoint::eventId))
+                .orElse(new Checkpoint(Long.MAX_VALUE, Long.MAX_VALUE));
+        return jdbcTemplate.update(PURGE, oldest.transactionId(), oldest.eventId(), retention.toSeconds(), limit);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecom.sale.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RevokedTokenFilter {
+
+    @Value("${jwt.refresh.revoked-filter.max-size:200000}")
+    private int maxSize;
+
+    private BoundedTtlCache<Long, Boolean> revokedTokens;
+
+    @PostConstruct
+    void init() {
+        revokedTokens = new BoundedTtlCache<>(maxSize);
+    }
+
+    public boolean isRevoked(String tokenHash) {
+        return revokedTokens.get(fingerprint(tokenHash)) != null;
+    }
+
+    public void revoke(String tokenHash, long expiresAtMillis) {
+        revokedTokens.put(fingerprint(tokenHash), Boolean.TRUE, expiresAtMillis);
+    }
+
+    private Long fingerprint(String tokenHash) {
+        return Long.parseUnsignedLong(tokenHash.substring(0, 16), 16);
+    }
+}
@@ -0,0 +1,160 @@
+package com.ecom.sale.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class SalesRollupStore {
+
+    private static final String FIND_CATEGORY_IDS = "SELECT id, category_id FROM products WHERE id IN (:ids)";
+
+    private static final String FIND_LINES = """
+            SELECT order_id, category_id, day, status, units, revenue FROM sales_rollup_lines
+            WHERE order_id IN (:ids)""";
+
+    private static final String DELETE_LINES = "DELETE FROM sales_rollup_lines WHERE order_id IN (:ids)";
+
+    private static final String INSERT_LINE = """
+            INSERT INTO sales_rollup_lines (order_id, category_id, day, status, units, revenue)
+            VALUES (:orderId, :categoryId, :day, :status, :units, :revenue)""";
+
+    private static final String APPLY_DELTA = """
+            INSERT INTO sales_daily_rollups (day, category_id, status, units, revenue, order_count, updated_date)
+            VALUES (:day, :categoryId, :status, :units, :revenue, :orders, LOCALTIMESTAMP)
+            ON CONFLICT (day, category_id, status) DO UPDATE
+            SET units = sales_daily_rollups.units + EXCLUDED.units,
+                revenue = sales_daily_rollups.revenue + EXCLUDED.revenue,
+                order_count = sales_daily_rollups.order_count + EXCLUDED.order_count,
+                updated_date = EXCLUDED.updated_date""";
+
+    private static final String DELETE_EMPTY =
+            "DELETE FROM sales_daily_rollups WHERE day IN (:days) AND order_count = 0";
+
+    private static final String FIND_DAILY = """
+            SELECT r.day, r.category_id, c.name AS category_name, r.status, r.units, r.revenue, r.order_count
+            FROM sales_daily_rollups r
+            JOIN categories c ON c.id = r.category_id
+            WHERE r.day >= :from AND r.day < :to
+              AND (CAST(:status AS VARCHAR) IS NULL OR r.status = :status)
+              AND (CAST(:categoryId AS BIGINT) IS NULL OR r.category_id = :categoryId)
+            ORDER BY r.day, c.name, r.status""";
+
+    private static final String SUM_BY_CATEGORY = """
+            SELECT r.category_id, c.name AS category_name,
+                   SUM(r.units) AS units, SUM(r.revenue) AS revenue, SUM(r.order_count) AS order_count
+            FROM sales_daily_rollups r
+            JOIN categories c ON c.id = r.category_id
+            WHERE r.day >= :from AND r.day < :to
+              AND (CAST(:status AS VARCHAR) IS NULL OR r.status = :status)
+            GROUP BY r.category_id, c.name
+            ORDER BY revenue DESC, c.name""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Line(long orderId, long categoryId, LocalDate day, String status, long units, BigDecimal revenue) {
+    }
+
+    public record Delta(LocalDate day, long categoryId, String status, long units, BigDecimal revenue, long orders) {
+    }
+
+    public record DailyRow(LocalDate day, long categoryId, String categoryName, String status,
+                           long units, BigDecimal revenue, long orders) {
+    }
+
+    public record CategoryRow(long categoryId, String categoryName, long units, BigDecimal revenue, long orders) {
+    }
+
+    public Map<Long, Long> findCategoryIds(Collection<Long> productIds) {
+        var categoryIds = new HashMap<Long, Long>();
+        if (!productIds.isEmpty()) {
+            jdbcTemplate.query(FIND_CATEGORY_IDS, Map.of("ids", productIds),
+                    (RowCallbackHandler) rs -> categoryIds.put(rs.getLong("id"), rs.getLong("category_id")));
+        }
+        return categoryIds;
+    }
+
+    public List<Line> findLines(Collection<Long> orderIds) {
+        return jdbcTemplate.query(FIND_LINES, Map.of("ids", orderIds), (rs, rowNum) -> new Line(
+                rs.getLong("order_id"),
+                rs.getLong("category_id"),
+                rs.getObject("day", LocalDate.class),
+                rs.getString("status"),
+                rs.getLong("units"),
+                rs.getBigDecimal("revenue")
+        ));
+    }
+
+    public void replaceLines(Collection<Long> orderIds, List<Line> lines) {
+        jdbcTemplate.update(DELETE_LINES, Map.of("ids", orderIds));
+        jdbcTemplate.batchUpdate(INSERT_LINE, lines.stream()
+                .map(line -> (SqlParameterSource) new MapSqlParameterSource()
+                        .addValue("orderId", line.orderId())
+                        .addValue("categoryId", line.categoryId())
+                        .addValue("day", line.day())
+                        .addValue("status", line.status())
+                        .addValue("units", line.units())
+                        .addValue("revenue", line.revenue()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public void apply(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(APPLY_DELTA, deltas.stream()
+                .map(delta -> (SqlParameterSource) new MapSqlParameterSource()
+                        .addValue("day", delta.day())
+                        .addValue("categoryId", delta.categoryId())
+                        .addValue("status", delta.status())
+                        .addValue("units", delta.units())
+                        .addValue("revenue", delta.revenue())
+                        .addValue("orders", delta.orders()))
+                .toArray(SqlParameterSource[]::new));
+        var days = deltas.stream().map(Delta::day).collect(Collectors.toSet());
+        jdbcTemplate.update(DELETE_EMPTY, Map.of("days", days));
+    }
+
+    public List<DailyRow> findDaily(LocalDate from, LocalDate to, String status, Long categoryId) {
+        var params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("status", status)
+                .addValue("categoryId", categoryId);
+        return jdbcTemplate.query(FIND_DAILY, params, (rs, rowNum) -> new DailyRow(
+                rs.getObject("day", LocalDate.class),
+                rs.getLong("category_id"),
+                rs.getString("category_name"),
+                rs.getString("status"),
+                rs.getLong("units"),
+                rs.getBigDecimal("revenue"),
+                rs.getLong("order_count")
+        ));
+    }
+
+    public List<CategoryRow> sumByCategory(LocalDate from, LocalDate to, String status) {
+        var params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("status", status);
+        return jdbcTemplate.query(SUM_BY_CATEGORY, params, (rs, rowNum) -> new CategoryRow(
+                rs.getLong("category_id"),
+                rs.getString("category_name"),
+                rs.getLong("units"),
+                rs.getBigDecimal("revenue"),
+                rs.getLong("order_count")
+        ));
+    }
+}
@@ -1,14 +1,19 @@
 package com.ecom.sale.util;
 
+import com.ecom.sale.dto.UserPrincipal;
 import com.ecom.sale.enums.Role;
 import com.ecom.sale.exception.CustomException;
 import com.ecom.sale.model.User;
 import com.ecom.sale.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.LocalDateTime;
 
@@ -16,51 +21,52 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class SecurityUtils {
 
+    private static final String CURRENT_USER_ATTRIBUTE = SecurityUtils.class.getName() + ".CURRENT_USER";
+
     private final UserRepository userRepository;
 
-    public User getCurrentUser(String apiPath) {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new CustomException(
-                    apiPath, HttpStatus.UNAUTHORIZED,
-                    "User is not authenticated", LocalDateTime.now()
-            );
-        }
-        var principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails userDetails) {
-            return userRepository.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new CustomException(
-                            apiPath, HttpStatus.NOT_FOUND,
-                            "User not found in database", LocalDateTime.now()
-                    ));
+    public UserPrincipal getCurrentPrincipal(String apiPath) {
+        var principal = getAuthentication(apiPath).getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userPrincipal;
         }
         throw new CustomException(
                 apiPath, HttpStatus.BAD_REQUEST,
-                "Principal is not an instance of UserDetails", LocalDateTime.now()
+                "Principal is not an instance of UserPrincipal", LocalDateTime.now()
         );
     }
 
+    public User getCurrentUser(String apiPath) {
+        var principal = getCurrentPrincipal(apiPath);
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached
+                && cached.getId().equals(principal.getId())) {
+            return cached;
+        }
+
+        var user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new CustomException(
+                        apiPath, HttpStatus.NOT_FOUND,
+                        "User not found in database", LocalDateTime.now()
+                ));
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
     public boolean hasRole(String roleName, String apiPath) {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new CustomException(
-                    apiPath, HttpStatus.UNAUTHORIZED,
-                    "User is not authenticated", LocalDateTime.now()
-            );
+        var authentication = getAuthentication(apiPath);
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.hasRole(roleName);
         }
         return authentication.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals(roleName));
     }
 
     public String getCurrentUsername(String apiPath) {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new CustomException(
-                    apiPath, HttpStatus.UNAUTHORIZED,
-                    "User is not authenticated", LocalDateTime.now()
-            );
-        }
-        var principal = authentication.getPrincipal();
+        var principal = getAuthentication(apiPath).getPrincipal();
         if (principal instanceof UserDetails userDetails) {
             return userDetails.getUsername();
         }
@@ -73,21 +79,39 @@ public class SecurityUtils {
         );
     }
 
-    public void validateAccess(User currentUser, Long id, String api) {
+    public void validateAccess(UserPrincipal currentUser, Long id, String api) {
         if (currentUser == null) {
             throw exception("User not authenticated", HttpStatus.UNAUTHORIZED, api);
         }
-        if (!hasRole(Role.ROLE_ADMIN.name(), api) && !currentUser.getId().equals(id)) {
+        if (!currentUser.hasRole(Role.ROLE_ADMIN.name()) && !currentUser.getId().equals(id)) {
             throw exception("Access denied to update profile", HttpStatus.FORBIDDEN, api);
         }
     }
 
-    public void hasPermission(User currentUser, User user, String api) {
-        if (!currentUser.getId().equals(user.getId())) {
+    public void validateAdmin(String api) {
+        if (!hasRole(Role.ROLE_ADMIN.name(), api)) {
+            throw exception("Access denied", HttpStatus.FORBIDDEN, api);
+        }
+    }
+
+    public void hasPermission(UserPrincipal currentUser, Long ownerId, String api) {
+        if (!currentUser.getId().equals(ownerId)) {
             throw exception("You do not have permission to do this", HttpStatus.FORBIDDEN,  api);
         }
     }
 
+    private Authentication getAuthentication(String apiPath) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            throw new CustomException(
+                    apiPath, HttpStatus.UNAUTHORIZED,
+                    "User is not authenticated", LocalDateTime.now()
+            );
+        }
+        return authentication;
+    }
+
     private CustomException exception(String message, HttpStatus status, String api) {
         return new CustomException(api, status, message, LocalDateTime.now());
     }
@@ -96,4 +120,4 @@ public class SecurityUtils {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication != null && authentication.isAuthenticated();
     }
-}
\ No newline at end of file
+}
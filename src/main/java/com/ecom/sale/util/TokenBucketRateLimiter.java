@@ -0,0 +1,85 @@
+package com.ecom.sale.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketRateLimiter {
+
+    private final List<Map<String, AtomicLong>> stripes;
+    private final int maxKeysPerStripe;
+
+    public TokenBucketRateLimiter(int stripeCount, int maxKeys) {
+        this.stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new ConcurrentHashMap<>());
+        }
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripeCount);
+    }
+
+    /**
+     * Takes one token from the bucket of the given key. Each bucket is a single theoretical
+     * arrival time updated with CAS (GCRA), which behaves like a token bucket of
+     * {@code capacity} tokens refilled one token per {@code refillIntervalNanos}.
+     *
+     * <p>A new key is refused while its stripe is full of clients still inside their window;
+     * evicting one of them would hand it a fresh burst.
+     *
+     * @return 0 when the request is allowed, otherwise the nanos until a token is available
+     */
+    public long tryAcquire(String key, int capacity, long refillIntervalNanos) {
+        var now = System.nanoTime();
+        var burstTolerance = refillIntervalNanos * (capacity - 1);
+        var bucket = bucketFor(key, now);
+        if (bucket == null) {
+            return refillIntervalNanos;
+        }
+        while (true) {
+            var theoreticalArrival = bucket.get();
+            var start = Math.max(theoreticalArrival, now);
+            if (start - now > burstTolerance) {
+                return start - now - burstTolerance;
+            }
+            if (bucket.compareAndSet(theoreticalArrival, start + refillIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int evictIdle() {
+        var now = System.nanoTime();
+        var evicted = 0;
+        for (var stripe : stripes) {
+            evicted += evictIdle(stripe, now);
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return stripes.stream().mapToInt(Map::size).sum();
+    }
+
+    private AtomicLong bucketFor(String key, long now) {
+        var stripe = stripes.get(Math.floorMod(key.hashCode(), stripes.size()));
+        var bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxKeysPerStripe && evictIdle(stripe, now) == 0) {
+            return null;
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private int evictIdle(Map<String, AtomicLong> stripe, long now) {
+        var evicted = 0;
+        for (var entry : stripe.entrySet()) {
+            if (entry.getValue().get() <= now && stripe.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecom.sale.util;
+
+import com.ecom.sale.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+
+    @Value("${jwt.access.token-version.ttl:60000}")
+    private long tokenVersionTtlInMs;
+
+    @Value("${jwt.access.token-version.max-size:100000}")
+    private int tokenVersionMaxSize;
+
+    private BoundedTtlCache<Long, Integer> versions;
+
+    @PostConstruct
+    void init() {
+        versions = new BoundedTtlCache<>(tokenVersionMaxSize);
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        var current = versions.get(userId);
+        if (current == null) {
+            current = userRepository.findTokenVersionById(userId).orElse(null);
+            if (current == null) {
+                return false;
+            }
+            versions.put(userId, current, System.currentTimeMillis() + tokenVersionTtlInMs);
+        }
+        return current == tokenVersion;
+    }
+
+    public void invalidateAfterCommit(Long userId) {
+        TransactionUtils.afterCommit(() -> versions.invalidate(userId));
+    }
+}
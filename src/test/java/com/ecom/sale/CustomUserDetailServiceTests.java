@@ -0,0 +1,64 @@
+package com.ecom.sale;
+
+import com.ecom.sale.model.User;
+import com.ecom.sale.service.impl.CustomUserDetailService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class CustomUserDetailServiceTests {
+
+	@Autowired
+	private CustomUserDetailService userDetailService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = fixtures.user("principal-" + TestFixtures.suffix());
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void cachedPrincipalIsServedWithoutQueriesOrPassword() {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		var first = userDetailService.loadPrincipal(user.getUsername());
+		entityManager.clear();
+		statistics.clear();
+		var second = userDetailService.loadPrincipal(user.getUsername());
+
+		assertThat(second).isSameAs(first);
+		assertThat(second.getPassword()).isNull();
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void passwordChecksAndEvictionGoBackToTheDatabase() {
+		var cached = userDetailService.loadPrincipal(user.getUsername());
+
+		assertThat(userDetailService.loadUserByUsername(user.getUsername()).getPassword()).isEqualTo("x");
+
+		userDetailService.evict(user.getUsername());
+		assertThat(userDetailService.loadPrincipal(user.getUsername())).isNotSameAs(cached);
+	}
+}
@@ -0,0 +1,165 @@
+package com.ecom.sale;
+
+import com.ecom.sale.config.IdempotencyFilter;
+import com.ecom.sale.model.User;
+import com.ecom.sale.util.HashUtils;
+import com.ecom.sale.util.IdempotencyStore;
+import com.ecom.sale.util.IdempotencyStore.StoredResponse;
+import com.ecom.sale.util.JwtUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// the filter works on its own connections, so keys are committed and removed after each test
+@SpringBootTest(properties = "idempotency.wait-timeout=PT2S")
+@AutoConfigureMockMvc
+class IdempotencyFilterTests {
+
+	private static final String PATH = "/api/orders";
+	private static final String BODY = "{\"productIds\":[-1],\"quantities\":[1]}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+	private String token;
+
+	@BeforeEach
+	void setUp() {
+		user = transactionTemplate.execute(status -> fixtures.user("idem-" + TestFixtures.suffix()));
+		token = jwtUtils.generateAccessToken(TestFixtures.principal(user));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+	}
+
+	@Test
+	void repeatedRequestReplaysTheFirstResponse() throws Exception {
+		var key = UUID.randomUUID().toString();
+
+		var first = send(key, BODY);
+		var second = send(key, BODY);
+
+		assertThat(first.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+		assertThat(second.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(second.getResponse().getStatus()).isEqualTo(first.getResponse().getStatus());
+		assertThat(second.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT status FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+				String.class, user.getId(), key)).isEqualTo("COMPLETED");
+	}
+
+	@Test
+	void sameKeyWithAnotherBodyIsRejected() throws Exception {
+		var key = UUID.randomUUID().toString();
+		send(key, BODY);
+
+		var other = send(key, "{\"productIds\":[-2],\"quantities\":[1]}");
+
+		assertThat(other.getResponse().getStatus()).isEqualTo(422);
+	}
+
+	@Test
+	void duplicateOfARequestRunningElsewhereWaitsForItsResponse() throws Exception {
+		var key = UUID.randomUUID().toString();
+		// another node claimed the key and finishes shortly after the duplicate arrives
+		assertThat(idempotencyStore.claim(user.getId(), key, fingerprint(BODY), Duration.ofMinutes(1))).isTrue();
+		var stored = new StoredResponse(fingerprint(BODY), 201, MediaType.APPLICATION_JSON_VALUE, "{\"id\":42}");
+		var completion = CompletableFuture.runAsync(() -> {
+			sleep(300);
+			idempotencyStore.complete(user.getId(), key, stored, Duration.ofHours(1));
+		});
+
+		var duplicate = send(key, BODY);
+
+		completion.get(5, TimeUnit.SECONDS);
+		assertThat(duplicate.getResponse().getStatus()).isEqualTo(201);
+		assertThat(duplicate.getResponse().getContentAsString()).isEqualTo("{\"id\":42}");
+		assertThat(duplicate.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+	}
+
+	@Test
+	void duplicateGivesUpWithConflictWhenTheFirstRequestNeverFinishes() throws Exception {
+		var key = UUID.randomUUID().toString();
+		assertThat(idempotencyStore.claim(user.getId(), key, fingerprint(BODY), Duration.ofMinutes(1))).isTrue();
+
+		var started = System.nanoTime();
+		var duplicate = send(key, BODY);
+
+		assertThat(duplicate.getResponse().getStatus()).isEqualTo(409);
+		assertThat(duplicate.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+		assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(2));
+	}
+
+	@Test
+	void expiredKeyIsClaimedAgain() throws Exception {
+		var key = UUID.randomUUID().toString();
+		jdbcTemplate.update("""
+				INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint, status, response_status,
+				                              content_type, response_body, created_date, expires_at)
+				VALUES (?, ?, ?, 'COMPLETED', 201, 'application/json', '{"id":42}',
+				        LOCALTIMESTAMP - INTERVAL '2 days', LOCALTIMESTAMP - INTERVAL '1 day')""",
+				user.getId(), key, fingerprint(BODY));
+
+		var result = send(key, BODY);
+
+		assertThat(result.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+		assertThat(result.getResponse().getContentAsString()).isNotEqualTo("{\"id\":42}");
+	}
+
+	private MvcResult send(String key, String body) throws Exception {
+		return mockMvc.perform(post(PATH)
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+						.header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body))
+				.andReturn();
+	}
+
+	private static String fingerprint(String body) {
+		return HashUtils.sha256Hex("POST " + PATH + "\n" + body);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
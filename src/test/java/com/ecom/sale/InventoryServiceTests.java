@@ -0,0 +1,185 @@
+package com.ecom.sale;
+
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.InventoryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// commits its data, so concurrent transactions see the same rows
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InventoryServiceTests {
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private String suffix;
+	private Category category;
+	private final List<Long> productIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		suffix = TestFixtures.suffix();
+		category = transactionTemplate.execute(status -> fixtures.category("inventory-" + suffix));
+	}
+
+	@AfterEach
+	void tearDown() {
+		for (var productId : productIds) {
+			jdbcTemplate.update("DELETE FROM product_stock_buckets WHERE product_id = ?", productId);
+			jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+		}
+		jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category.getId());
+	}
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		var product = product("plain", 10);
+
+		assertThat(reserveConcurrently(product, 16)).isEqualTo(10);
+		assertThat(stock(product)).isZero();
+	}
+
+	@Test
+	void shortReservationLeavesStockUntouched() {
+		var product = product("short", 2);
+
+		assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+				status -> inventoryService.reserve(product, 3)))
+				.isInstanceOfSatisfying(CustomException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+		assertThat(stock(product)).isEqualTo(2);
+	}
+
+	@Test
+	void singleOrderWaitsForALockedBucketInsteadOfReportingAShortage() throws Exception {
+		var product = hotProduct("hot-wait", 10, 2);
+		var locked = new CountDownLatch(1);
+		var holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.queryForList(
+					"SELECT quantity FROM product_stock_buckets WHERE product_id = ? AND bucket_no = 1 FOR UPDATE",
+					product.getId());
+			locked.countDown();
+			sleep(300);
+		}));
+		assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// more than one bucket holds, so the reservation has to drain the locked one too
+		transactionTemplate.executeWithoutResult(status -> inventoryService.reserve(product, 8));
+
+		holder.get(5, TimeUnit.SECONDS);
+		assertThat(stock(product)).isEqualTo(2);
+	}
+
+	@Test
+	void releaseOfAPlainProductIsOneStatement() {
+		var plain = product("release-plain", 5);
+		var hot = hotProduct("release-hot", 4, 2);
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		statistics.clear();
+		transactionTemplate.executeWithoutResult(status -> inventoryService.release(Map.of(plain.getId(), 3)));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		transactionTemplate.executeWithoutResult(status -> inventoryService.release(Map.of(hot.getId(), 3)));
+		assertThat(stock(plain)).isEqualTo(8);
+		assertThat(stock(hot)).isEqualTo(7);
+	}
+
+	private Product hotProduct(String name, int quantity, int buckets) {
+		var product = product(name, quantity);
+		return transactionTemplate.execute(status -> {
+			var managed = entityManager.find(Product.class, product.getId());
+			inventoryService.configureBuckets(managed, buckets);
+			return managed;
+		});
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Product product(String name, int quantity) {
+		var product = transactionTemplate.execute(
+				status -> fixtures.product(category, "inventory-" + suffix + "-" + name, BigDecimal.TEN, quantity));
+		productIds.add(product.getId());
+		return product;
+	}
+
+	private int reserveConcurrently(Product product, int callers) throws Exception {
+		var pool = Executors.newFixedThreadPool(callers);
+		try {
+			var start = new CountDownLatch(1);
+			var results = new ArrayList<CompletableFuture<Boolean>>();
+			for (int i = 0; i < callers; i++) {
+				results.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return transactionTemplate.execute(status -> inventoryService.tryReserve(product, 1));
+				}, pool));
+			}
+			start.countDown();
+			var reserved = 0;
+			for (var result : results) {
+				if (result.get(30, TimeUnit.SECONDS)) {
+					reserved++;
+				}
+			}
+			return reserved;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private int stock(Product product) {
+		return jdbcTemplate.queryForObject("""
+				SELECT CASE WHEN p.stock_buckets > 0
+				            THEN (SELECT COALESCE(SUM(b.quantity), 0) FROM product_stock_buckets b WHERE b.product_id = p.id)
+				            ELSE p.quantity END
+				FROM products p WHERE p.id = ?""", Integer.class, product.getId());
+	}
+}
@@ -0,0 +1,78 @@
+package com.ecom.sale;
+
+import com.ecom.sale.config.JwtAuthFilter;
+import com.ecom.sale.dto.UserPrincipal;
+import com.ecom.sale.model.User;
+import com.ecom.sale.util.JwtUtils;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class JwtAuthFilterTests {
+
+	@Autowired
+	private JwtAuthFilter jwtAuthFilter;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = fixtures.user("filter-" + TestFixtures.suffix());
+		user.setTokenVersion(1);
+		entityManager.flush();
+		TestFixtures.clearAuthentication();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void principalComesFromTheTokenClaims() throws Exception {
+		// the user has no roles in the database, so ROLE_ADMIN can only come from the token
+		authenticate(new UserPrincipal(user.getId(), user.getUsername(), null, 1, List.of("ROLE_ADMIN")));
+
+		var authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(authentication).isNotNull();
+		var principal = (UserPrincipal) authentication.getPrincipal();
+		assertThat(principal.getId()).isEqualTo(user.getId());
+		assertThat(principal.getRoles()).containsExactly("ROLE_ADMIN");
+	}
+
+	@Test
+	void tokenWithAnOldVersionIsIgnored() throws Exception {
+		authenticate(new UserPrincipal(user.getId(), user.getUsername(), null, 0, List.of("ROLE_USER")));
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	private void authenticate(UserPrincipal principal) throws Exception {
+		var request = new MockHttpServletRequest("GET", "/api/orders");
+		request.addHeader("Authorization", "Bearer " + jwtUtils.generateAccessToken(principal));
+		jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+	}
+}
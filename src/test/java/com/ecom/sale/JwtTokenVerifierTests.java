@@ -0,0 +1,52 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.UserPrincipal;
+import com.ecom.sale.util.JwtTokenVerifier;
+import com.ecom.sale.util.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class JwtTokenVerifierTests {
+
+	@Autowired
+	private JwtTokenVerifier tokenVerifier;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Test
+	void verifiedTokenIsAnImmutableProjectionServedFromTheCache() {
+		var token = jwtUtils.generateAccessToken(
+				new UserPrincipal(42L, "verifier-user", null, 3, List.of("ROLE_USER", "ROLE_ADMIN")));
+
+		var first = tokenVerifier.verifyAccessToken(token).orElseThrow();
+		assertThat(first.username()).isEqualTo("verifier-user");
+		assertThat(first.userId()).isEqualTo(42L);
+		assertThat(first.tokenVersion()).isEqualTo(3);
+		assertThat(first.roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+		assertThatThrownBy(() -> first.roles().add("ROLE_ROOT")).isInstanceOf(UnsupportedOperationException.class);
+
+		var second = tokenVerifier.verifyAccessToken(token).orElseThrow();
+		assertThat(second).isSameAs(first);
+		assertThat(second.toPrincipal().getRoles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+	}
+
+	@Test
+	void tamperedTokenIsRejected() {
+		var token = jwtUtils.generateAccessToken(new UserPrincipal(42L, "verifier-user", null, 0, List.of("ROLE_USER")));
+		var signatureStart = token.lastIndexOf('.') + 1;
+		var tampered = token.substring(0, signatureStart)
+				+ (token.charAt(signatureStart) == 'A' ? 'B' : 'A')
+				+ token.substring(signatureStart + 1);
+
+		assertThat(tokenVerifier.verifyAccessToken(tampered)).isEmpty();
+		assertThat(tokenVerifier.verifyAccessToken("not-a-token")).isEmpty();
+	}
+}
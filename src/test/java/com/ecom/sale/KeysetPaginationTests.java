@@ -0,0 +1,124 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.CursorPageDto;
+import com.ecom.sale.dto.OrderDto;
+import com.ecom.sale.dto.ProductDto;
+import com.ecom.sale.dto.ProductSearchCriteria;
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.OrderService;
+import com.ecom.sale.service.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class KeysetPaginationTests {
+
+	private static final int ROWS = 5;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Category category;
+	private final List<Product> products = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		category = fixtures.category("scroll-" + suffix);
+		var user = fixtures.user("scroll-" + suffix);
+		for (int i = 0; i < ROWS; i++) {
+			products.add(fixtures.product(category, "scroll-" + suffix + "-" + i, BigDecimal.TEN, 100));
+		}
+		entityManager.flush();
+		TestFixtures.authenticate(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void ordersScrollNewestFirstWithoutCountQueries() {
+		var created = new ArrayList<Long>();
+		for (var product : products) {
+			created.add(orderService.createOrder(TestFixtures.orderRequest(List.of(product.getId()), List.of(1))).getId());
+		}
+		Collections.reverse(created);
+		entityManager.flush();
+		entityManager.clear();
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		var slices = scroll(cursor -> orderService.scrollOrders(cursor, 2));
+
+		// one query for the slice and one for its items, never a count
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L * slices.size());
+		assertThat(slices).extracting(slice -> slice.getContent().size()).containsExactly(2, 2, 1);
+		assertThat(slices.stream().flatMap(slice -> slice.getContent().stream()).map(OrderDto::getId).toList())
+				.containsExactlyElementsOf(created);
+	}
+
+	@Test
+	void productsScrollByIdWithinTheFilter() {
+		var criteria = new ProductSearchCriteria();
+		criteria.setCategoryName(category.getName());
+
+		var slices = scroll(cursor -> productService.scrollProducts(criteria, cursor, 2));
+
+		assertThat(slices).extracting(CursorPageDto::isHasNext).containsExactly(true, true, false);
+		assertThat(slices.stream().flatMap(slice -> slice.getContent().stream()).map(ProductDto::getId).toList())
+				.containsExactlyElementsOf(products.stream().map(Product::getId).sorted(Comparator.naturalOrder()).toList());
+	}
+
+	@Test
+	void malformedCursorIsABadRequest() {
+		assertThatThrownBy(() -> orderService.scrollOrders("not a cursor", 2))
+				.isInstanceOfSatisfying(CustomException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	private static <T> List<CursorPageDto<T>> scroll(Function<String, CursorPageDto<T>> fetch) {
+		var slices = new ArrayList<CursorPageDto<T>>();
+		String cursor = null;
+		do {
+			var slice = fetch.apply(cursor);
+			slices.add(slice);
+			cursor = slice.getNextCursor();
+		} while (cursor != null);
+		return slices;
+	}
+}
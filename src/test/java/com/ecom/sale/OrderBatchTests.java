@@ -0,0 +1,83 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.OrderBatchItemDto;
+import com.ecom.sale.dto.request.OrderBatchRequest;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class OrderBatchTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		var category = fixtures.category("batch-" + suffix);
+		var user = fixtures.user("batch-" + suffix);
+		product = fixtures.product(category, "batch-" + suffix, BigDecimal.TEN, 5);
+		entityManager.flush();
+		TestFixtures.authenticate(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void eachOrderSucceedsOrFailsOnItsOwn() {
+		var request = new OrderBatchRequest();
+		ReflectionTestUtils.setField(request, "orders", Arrays.asList(
+				TestFixtures.orderRequest(List.of(product.getId()), List.of(2)),
+				null,
+				TestFixtures.orderRequest(List.of(product.getId()), List.of(1, 1)),
+				TestFixtures.orderRequest(List.of(product.getId()), List.of(10)),
+				TestFixtures.orderRequest(List.of(product.getId()), List.of(3))));
+
+		var result = orderService.createOrders(request);
+		entityManager.flush();
+
+		assertThat(result.getSucceeded()).isEqualTo(2);
+		assertThat(result.getFailed()).isEqualTo(3);
+		assertThat(result.getResults())
+				.extracting(OrderBatchItemDto::getIndex, OrderBatchItemDto::isSuccess, OrderBatchItemDto::getError)
+				.containsExactly(
+						tuple(0, true, null),
+						tuple(1, false, "Order must not be null"),
+						tuple(2, false, "Product IDs and quantities must match in size"),
+						tuple(3, false, "Not enough stock for product: " + product.getName()),
+						tuple(4, true, null));
+		assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId()))
+				.isZero();
+	}
+}
@@ -0,0 +1,83 @@
+package com.ecom.sale;
+
+import com.ecom.sale.job.OrderExpiryJob;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderExpiryJobTests {
+
+	@Autowired
+	private OrderExpiryJob orderExpiryJob;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		var category = fixtures.category("expiry-" + suffix);
+		var user = fixtures.user("expiry-" + suffix);
+		product = fixtures.product(category, "expiry-" + suffix, BigDecimal.TEN, 10);
+		entityManager.flush();
+		TestFixtures.authenticate(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void unpaidOrderPastItsReservationIsCancelledAndReleased() {
+		var expired = orderService.createOrder(TestFixtures.orderRequest(List.of(product.getId()), List.of(3))).getId();
+		var fresh = orderService.createOrder(TestFixtures.orderRequest(List.of(product.getId()), List.of(2))).getId();
+		entityManager.flush();
+		jdbcTemplate.update("UPDATE orders SET created_date = created_date - INTERVAL '1 hour' WHERE id = ?", expired);
+		entityManager.clear();
+		assertThat(quantity()).isEqualTo(5);
+
+		orderExpiryJob.expire();
+		entityManager.flush();
+
+		assertThat(status(expired)).isEqualTo("CANCELLED");
+		assertThat(status(fresh)).isEqualTo("NEW");
+		assertThat(quantity()).isEqualTo(8);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM outbox_events WHERE event_type = 'ORDER_EXPIRED' AND aggregate_id = ?",
+				Long.class, expired)).isEqualTo(1);
+	}
+
+	private String status(Long orderId) {
+		return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, orderId);
+	}
+
+	private int quantity() {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId());
+	}
+}
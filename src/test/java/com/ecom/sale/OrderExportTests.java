@@ -0,0 +1,167 @@
+package com.ecom.sale;
+
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.model.User;
+import com.ecom.sale.service.OrderService;
+import com.ecom.sale.util.JwtUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// the export reads in its own transaction on another thread, so orders are committed and removed after each test
+@SpringBootTest(properties = "order.export.timeout=PT7M")
+@AutoConfigureMockMvc
+class OrderExportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+	private User admin;
+	private Product first;
+	private Product second;
+	private Long twoItems;
+	private Long oneItem;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		transactionTemplate.executeWithoutResult(status -> {
+			category = fixtures.category("export-" + suffix);
+			admin = fixtures.user("export-" + suffix);
+			first = fixtures.product(category, "export-first-" + suffix, BigDecimal.TEN, 10);
+			second = fixtures.product(category, "export-second-" + suffix, BigDecimal.ONE, 10);
+		});
+		TestFixtures.authenticate(admin);
+		try {
+			twoItems = orderService.createOrder(TestFixtures.orderRequest(
+					List.of(first.getId(), second.getId()), List.of(2, 3))).getId();
+			oneItem = orderService.createOrder(TestFixtures.orderRequest(List.of(second.getId()), List.of(1))).getId();
+		} finally {
+			TestFixtures.clearAuthentication();
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		var orders = "SELECT id FROM orders WHERE user_id = ?";
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'ORDER' AND aggregate_id IN (" + orders + ")", admin.getId());
+		jdbcTemplate.update("DELETE FROM sales_rollup_lines WHERE order_id IN (" + orders + ")", admin.getId());
+		jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + orders + ")", admin.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", admin.getId());
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", admin.getId());
+		jdbcTemplate.update("DELETE FROM products WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM sales_daily_rollups WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category.getId());
+	}
+
+	@Test
+	void csvExportStreamsOneRowPerItemUnderItsOwnTimeout() throws Exception {
+		var started = export("csv", null);
+
+		assertThat(started.getRequest().isAsyncStarted()).isTrue();
+		assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(7).toMillis());
+
+		var result = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+		assertThat(result.getResponse().getStatus()).isEqualTo(200);
+		assertThat(result.getResponse().getContentType()).startsWith("text/csv");
+		assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("attachment", ".csv");
+		var lines = result.getResponse().getContentAsString().split("\n");
+		assertThat(lines[0]).startsWith("order_id,user_id,status");
+		assertThat(rowsOf(lines, twoItems)).hasSize(2)
+				.anySatisfy(row -> assertThat(row).contains("," + first.getId() + ",2,10.00,20.00"))
+				.anySatisfy(row -> assertThat(row).contains("," + second.getId() + ",3,1.00,3.00"));
+		assertThat(rowsOf(lines, oneItem)).singleElement().asString().contains(",NEW,1.00,");
+	}
+
+	@Test
+	void ndjsonExportIsGzippedWhenTheClientAcceptsIt() throws Exception {
+		var started = export("ndjson", "gzip, deflate");
+		var result = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+		assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains(".ndjson.gz");
+		String body;
+		try (var input = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		var lines = body.split("\n");
+		assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+		assertThat(rowsOf(lines, twoItems)).singleElement().asString().contains("\"quantity\":2", "\"quantity\":3");
+		assertThat(rowsOf(lines, oneItem)).singleElement().asString().contains("\"totalAmount\":1.00");
+	}
+
+	@Test
+	void emptyRangeIsRejectedBeforeStreaming() throws Exception {
+		var now = LocalDateTime.now().withNano(0);
+		var result = mockMvc.perform(get("/api/orders/export")
+						.param("from", now.toString())
+						.param("to", now.toString())
+						.header(HttpHeaders.AUTHORIZATION, bearer()))
+				.andReturn();
+
+		assertThat(result.getRequest().isAsyncStarted()).isFalse();
+		assertThat(result.getResponse().getStatus()).isEqualTo(400);
+	}
+
+	private MvcResult export(String format, String acceptEncoding) throws Exception {
+		var now = LocalDateTime.now().withNano(0);
+		var request = get("/api/orders/export")
+				.param("from", now.minusDays(1).toString())
+				.param("to", now.plusDays(1).toString())
+				.param("format", format)
+				.header(HttpHeaders.AUTHORIZATION, bearer());
+		if (acceptEncoding != null) {
+			request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		return mockMvc.perform(request).andReturn();
+	}
+
+	private String bearer() {
+		return "Bearer " + jwtUtils.generateAccessToken(TestFixtures.principal(admin, "ROLE_ADMIN"));
+	}
+
+	private static List<String> rowsOf(String[] lines, Long orderId) {
+		return Arrays.stream(lines)
+				.filter(line -> line.startsWith(orderId + ",") || line.startsWith("{\"id\":" + orderId + ","))
+				.toList();
+	}
+}
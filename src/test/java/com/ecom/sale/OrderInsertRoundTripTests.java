@@ -0,0 +1,73 @@
+package com.ecom.sale;
+
+import com.ecom.sale.enums.OrderStatus;
+import com.ecom.sale.model.Order;
+import com.ecom.sale.model.OrderItem;
+import com.ecom.sale.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderInsertRoundTripTests {
+
+	private static final int LINES = 10;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void tenLineOrderNeedsConstantStatements() {
+		var suffix = TestFixtures.suffix();
+		var category = fixtures.category("bench-" + suffix);
+		var user = fixtures.user("bench-" + suffix);
+
+		var products = new ArrayList<Product>();
+		for (int i = 0; i < LINES; i++) {
+			products.add(fixtures.product(category, "bench-" + suffix + "-" + i, BigDecimal.TEN, 100));
+		}
+		entityManager.flush();
+
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		var order = new Order();
+		order.setStatus(OrderStatus.NEW);
+		order.setUser(user);
+		order.setTotalAmount(BigDecimal.TEN.multiply(BigDecimal.valueOf(LINES)));
+		order.setOrderItems(new ArrayList<>());
+		for (var product : products) {
+			var item = new OrderItem();
+			item.setOrder(order);
+			item.setProduct(product);
+			item.setQuantity(1);
+			item.setUnitPrice(product.getPrice());
+			item.setTotalPrice(product.getPrice());
+			order.getOrderItems().add(item);
+		}
+		entityManager.persist(order);
+		entityManager.flush();
+
+		var statements = statistics.getPrepareStatementCount();
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES + 1);
+		// at most two sequence calls per generator on a cold start, plus one insert statement per table
+		assertThat(statements).isLessThanOrEqualTo(6);
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.ecom.sale;
+
+import com.ecom.sale.exception.ThrottledException;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.model.User;
+import com.ecom.sale.service.impl.OrderIntakeQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// a single worker held on a locked product row, with room for one more queued order
+@SpringBootTest(properties = {"order.intake.workers=1", "order.intake.capacity=1", "order.intake.linger=PT0S"})
+class OrderIntakeBackpressureTests {
+
+	@Autowired
+	private OrderIntakeQueue orderIntakeQueue;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private Category category;
+	private User user;
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		transactionTemplate.executeWithoutResult(status -> {
+			category = fixtures.category("backpressure-" + suffix);
+			user = fixtures.user("backpressure-" + suffix);
+			product = fixtures.product(category, "backpressure-" + suffix, BigDecimal.TEN, 10);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		var orders = "SELECT id FROM orders WHERE user_id = ?";
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'ORDER' AND aggregate_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM sales_rollup_lines WHERE order_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM products WHERE id = ?", product.getId());
+		jdbcTemplate.update("DELETE FROM sales_daily_rollups WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category.getId());
+	}
+
+	@Test
+	void fullQueueRejectsWithoutKeepingTheIntake() throws Exception {
+		var depth = meterRegistry.get("order.intake.queue.depth").gauge();
+		var rejected = meterRegistry.get("order.intake.rejected").counter();
+		var rejectedBefore = rejected.count();
+
+		try (var lock = dataSource.getConnection()) {
+			lock.setAutoCommit(false);
+			try (var statement = lock.prepareStatement("SELECT id FROM products WHERE id = ? FOR UPDATE")) {
+				statement.setLong(1, product.getId());
+				statement.executeQuery().close();
+			}
+
+			submit();
+			awaitEmpty(depth::value);
+			submit();
+
+			assertThatThrownBy(this::submit)
+					.isInstanceOfSatisfying(ThrottledException.class, e -> {
+						assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+						assertThat(e.getRetryAfterSeconds()).isPositive();
+					});
+			assertThat(rejected.count() - rejectedBefore).isEqualTo(1);
+			assertThat(intakes("QUEUED")).isEqualTo(2);
+
+			lock.rollback();
+		}
+
+		var deadline = System.nanoTime() + 10_000_000_000L;
+		while (intakes("CREATED") < 2 && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(intakes("CREATED")).isEqualTo(2);
+	}
+
+	private void submit() {
+		orderIntakeQueue.submit(user.getId(), TestFixtures.orderRequest(List.of(product.getId()), List.of(1)));
+	}
+
+	private long intakes(String status) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_intakes WHERE user_id = ? AND status = ?",
+				Long.class, user.getId(), status);
+	}
+
+	private static void awaitEmpty(DoubleSupplier depth) throws InterruptedException {
+		var deadline = System.nanoTime() + 5_000_000_000L;
+		while (depth.getAsDouble() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+}
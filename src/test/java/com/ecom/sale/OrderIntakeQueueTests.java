@@ -0,0 +1,210 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.OrderIntakeDto;
+import com.ecom.sale.enums.OrderIntakeStatus;
+import com.ecom.sale.job.OrderIntakeRecoveryJob;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.model.User;
+import com.ecom.sale.service.impl.OrderIntakeQueue;
+import com.ecom.sale.util.JwtUtils;
+import com.ecom.sale.util.OrderIntakeStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// one worker with a long linger, so orders submitted together are created in one batch
+@SpringBootTest(properties = {"order.intake.workers=1", "order.intake.linger=PT0.5S"})
+@AutoConfigureMockMvc
+class OrderIntakeQueueTests {
+
+	private static final String BODY = "{\"productIds\":[%d],\"quantities\":[1]}";
+
+	@Autowired
+	private OrderIntakeQueue orderIntakeQueue;
+
+	@Autowired
+	private OrderIntakeStore orderIntakeStore;
+
+	@Autowired
+	private OrderIntakeRecoveryJob orderIntakeRecoveryJob;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+	private User user;
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		transactionTemplate.executeWithoutResult(status -> {
+			category = fixtures.category("intake-" + suffix);
+			user = fixtures.user("intake-" + suffix);
+			product = fixtures.product(category, "intake-" + suffix, BigDecimal.TEN, 10);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		var orders = "SELECT id FROM orders WHERE user_id = ?";
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'ORDER' AND aggregate_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM sales_rollup_lines WHERE order_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM products WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM sales_daily_rollups WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category.getId());
+	}
+
+	@Test
+	void ordersSubmittedTogetherAreStoredThenCreatedInOneBatch() {
+		var batches = meterRegistry.get("order.intake.batch.size").summary();
+		var batchesBefore = batches.count();
+		var ordersBefore = batches.totalAmount();
+
+		var intakes = List.of(submit(product, 1), submit(product, 2), submit(product, 3));
+
+		// acknowledged intakes are already in the database
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_intakes WHERE user_id = ?",
+				Long.class, user.getId())).isEqualTo(3);
+		for (var intakeId : intakes) {
+			var intake = awaitResolved(intakeId);
+			assertThat(intake.getStatus()).isEqualTo(OrderIntakeStatus.CREATED);
+			assertThat(intake.getOrderId()).isNotNull();
+		}
+		assertThat(batches.totalAmount() - ordersBefore).isEqualTo(3);
+		assertThat(batches.count() - batchesBefore).isLessThan(3);
+		assertThat(stock(product)).isEqualTo(4);
+	}
+
+	@Test
+	void orderBreakingTheSharedTransactionIsRejectedAlone() {
+		// its total does not fit the amount column, which only fails when the batch is flushed
+		var expensive = transactionTemplate.execute(status -> fixtures.product(
+				category, "intake-expensive-" + TestFixtures.suffix(), new BigDecimal("1000000000000000"), 10000));
+
+		var first = submit(product, 1);
+		var broken = submit(expensive, 10000);
+		var last = submit(product, 2);
+
+		assertThat(awaitResolved(first).getStatus()).isEqualTo(OrderIntakeStatus.CREATED);
+		assertThat(awaitResolved(last).getStatus()).isEqualTo(OrderIntakeStatus.CREATED);
+		var rejected = awaitResolved(broken);
+		assertThat(rejected.getStatus()).isEqualTo(OrderIntakeStatus.REJECTED);
+		assertThat(rejected.getError()).isEqualTo("Order could not be processed");
+		assertThat(stock(product)).isEqualTo(7);
+		assertThat(stock(expensive)).isEqualTo(10000);
+	}
+
+	@Test
+	void intakeLeftQueuedByAStoppedInstanceIsRecovered() {
+		var intakeId = UUID.randomUUID().toString();
+		orderIntakeStore.insert(intakeId, user.getId(), BODY.formatted(product.getId()));
+		jdbcTemplate.update("UPDATE order_intakes SET updated_date = LOCALTIMESTAMP - INTERVAL '1 hour' WHERE id = ?",
+				intakeId);
+
+		orderIntakeRecoveryJob.recover();
+
+		assertThat(awaitResolved(intakeId).getStatus()).isEqualTo(OrderIntakeStatus.CREATED);
+		assertThat(stock(product)).isEqualTo(9);
+	}
+
+	@Test
+	void respondAsyncAmongOtherPreferencesQueuesTheOrder() throws Exception {
+		var queued = send("wait=5, RESPOND-ASYNC");
+
+		assertThat(queued.getResponse().getStatus()).isEqualTo(202);
+		assertThat(queued.getResponse().getHeader("Preference-Applied")).isEqualTo("respond-async");
+		var location = queued.getResponse().getHeader(HttpHeaders.LOCATION);
+		awaitResolved(location.substring(location.lastIndexOf('/') + 1));
+
+		var polled = mockMvc.perform(get(location).header(HttpHeaders.AUTHORIZATION, bearer())).andReturn();
+
+		assertThat(polled.getResponse().getStatus()).isEqualTo(200);
+		assertThat(polled.getResponse().getContentAsString()).contains("\"status\":\"CREATED\"", "\"order\":{");
+	}
+
+	@Test
+	void otherPreferencesCreateTheOrderRightAway() throws Exception {
+		var created = send("return=minimal");
+
+		assertThat(created.getResponse().getStatus()).isEqualTo(200);
+		assertThat(created.getResponse().getHeader("Preference-Applied")).isNull();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_intakes WHERE user_id = ?",
+				Long.class, user.getId())).isZero();
+	}
+
+	private String submit(Product product, int quantity) {
+		return orderIntakeQueue.submit(user.getId(),
+				TestFixtures.orderRequest(List.of(product.getId()), List.of(quantity))).getIntakeId();
+	}
+
+	private MvcResult send(String prefer) throws Exception {
+		return mockMvc.perform(post("/api/orders")
+						.header(HttpHeaders.AUTHORIZATION, bearer())
+						.header("Prefer", prefer)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(BODY.formatted(product.getId())))
+				.andReturn();
+	}
+
+	private String bearer() {
+		return "Bearer " + jwtUtils.generateAccessToken(TestFixtures.principal(user));
+	}
+
+	private OrderIntakeDto awaitResolved(String intakeId) {
+		var deadline = System.nanoTime() + 10_000_000_000L;
+		while (true) {
+			var intake = orderIntakeQueue.find(intakeId, user.getId()).orElseThrow();
+			if (intake.getStatus() != OrderIntakeStatus.QUEUED || System.nanoTime() > deadline) {
+				return intake;
+			}
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return intake;
+			}
+		}
+	}
+
+	private int stock(Product product) {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId());
+	}
+}
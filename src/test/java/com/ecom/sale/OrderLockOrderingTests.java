@@ -0,0 +1,171 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.OrderItemDto;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.model.User;
+import com.ecom.sale.service.InventoryService;
+import com.ecom.sale.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// commits its data, so a second connection can hold product rows while an order is placed
+@SpringBootTest
+class OrderLockOrderingTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private Category category;
+	private User user;
+	private Product first;
+	private Product second;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		transactionTemplate.executeWithoutResult(status -> {
+			category = fixtures.category("locking-" + suffix);
+			user = fixtures.user("locking-" + suffix);
+			first = fixtures.product(category, "locking-first-" + suffix, BigDecimal.TEN, 10);
+			second = fixtures.product(category, "locking-second-" + suffix, BigDecimal.ONE, 10);
+		});
+		TestFixtures.authenticate(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+		setPessimisticLocking(false);
+		var orders = "SELECT id FROM orders WHERE user_id = ?";
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'ORDER' AND aggregate_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM sales_rollup_lines WHERE order_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + orders + ")", user.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM products WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM sales_daily_rollups WHERE category_id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category.getId());
+	}
+
+	@Test
+	void quantitiesAreMatchedByProductIdAndDuplicatesCollapse() {
+		var order = orderService.createOrder(TestFixtures.orderRequest(
+				List.of(second.getId(), first.getId(), second.getId()), List.of(1, 2, 3)));
+
+		var quantities = order.getOrderItems().stream()
+				.collect(Collectors.toMap(OrderItemDto::getProductId, OrderItemDto::getQuantity));
+		assertThat(quantities).isEqualTo(Map.of(first.getId(), 2, second.getId(), 4));
+		assertThat(order.getTotalAmount()).isEqualByComparingTo("24");
+		assertThat(stock(first)).isEqualTo(8);
+		assertThat(stock(second)).isEqualTo(6);
+	}
+
+	@ParameterizedTest(name = "pessimistic locking: {0}")
+	@ValueSource(booleans = {false, true})
+	void productsListedInDescendingOrderAreStillLockedAscending(boolean pessimistic) throws Exception {
+		setPessimisticLocking(pessimistic);
+
+		try (var blocker = dataSource.getConnection()) {
+			blocker.setAutoCommit(false);
+			lock(blocker, first, false);
+
+			// the request names the higher id first; the order must still wait on the lower one before touching it
+			var order = CompletableFuture.supplyAsync(() -> {
+				TestFixtures.authenticate(user);
+				try {
+					return orderService.createOrder(TestFixtures.orderRequest(
+							List.of(second.getId(), first.getId()), List.of(1, 1)));
+				} finally {
+					TestFixtures.clearAuthentication();
+				}
+			});
+			awaitLockWait();
+
+			try (var probe = dataSource.getConnection()) {
+				probe.setAutoCommit(false);
+				assertThat(lock(probe, second, true)).isTrue();
+				probe.rollback();
+			}
+			blocker.rollback();
+
+			var created = order.get(10, TimeUnit.SECONDS);
+			assertThat(created.getOrderItems()).hasSize(2);
+		}
+		assertThat(stock(first)).isEqualTo(9);
+		assertThat(stock(second)).isEqualTo(9);
+	}
+
+	private void setPessimisticLocking(boolean pessimistic) {
+		Object target = AopTestUtils.getTargetObject(inventoryService);
+		ReflectionTestUtils.setField(target, "pessimisticLocking", pessimistic);
+	}
+
+	private boolean lock(Connection connection, Product product, boolean noWait) throws SQLException {
+		var sql = "SELECT id FROM products WHERE id = ? FOR UPDATE" + (noWait ? " NOWAIT" : "");
+		try (var statement = connection.prepareStatement(sql)) {
+			statement.setLong(1, product.getId());
+			statement.executeQuery().close();
+			return true;
+		} catch (SQLException e) {
+			if ("55P03".equals(e.getSQLState())) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	private void awaitLockWait() throws InterruptedException {
+		var deadline = System.nanoTime() + 5_000_000_000L;
+		while (System.nanoTime() < deadline) {
+			var waiting = jdbcTemplate.queryForObject("""
+					SELECT COUNT(*) FROM pg_stat_activity
+					WHERE datname = current_database() AND wait_event_type = 'Lock'""", Long.class);
+			if (waiting > 0) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("order never waited on the locked product");
+	}
+
+	private int stock(Product product) {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId());
+	}
+}
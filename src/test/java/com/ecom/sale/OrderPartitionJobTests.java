@@ -0,0 +1,140 @@
+package com.ecom.sale;
+
+import com.ecom.sale.job.OrderPartitionJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// works on scratch tables shaped like orders, order_items and payments, so the real partitions are never touched
+@SpringBootTest(properties = "jobs.order-partitions.months-ahead=2")
+class OrderPartitionJobTests {
+
+	@Autowired
+	private OrderPartitionJob orderPartitionJob;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String orders;
+	private String items;
+	private String payments;
+
+	@BeforeEach
+	void setUp() {
+		orders = "partition_job_" + TestFixtures.suffix();
+		items = orders + "_items";
+		payments = orders + "_payments";
+		jdbcTemplate.execute("""
+				CREATE TABLE %1$s (id BIGINT, created_date TIMESTAMP, PRIMARY KEY (id, created_date))
+				    PARTITION BY RANGE (created_date);
+				CREATE TABLE %1$s_legacy PARTITION OF %1$s FOR VALUES FROM (MINVALUE) TO ('2026-08-01');
+				CREATE TABLE %1$s_p202608 PARTITION OF %1$s FOR VALUES FROM ('2026-08-01') TO ('2026-09-01');
+				CREATE TABLE %1$s_p202609 PARTITION OF %1$s FOR VALUES FROM ('2026-09-01') TO ('2026-10-01');
+				CREATE TABLE %1$s_default PARTITION OF %1$s DEFAULT;
+				CREATE TABLE %2$s (id BIGINT, order_id BIGINT, order_created_date TIMESTAMP, created_date TIMESTAMP,
+				    PRIMARY KEY (id, created_date), FOREIGN KEY (order_id, order_created_date) REFERENCES %1$s)
+				    PARTITION BY RANGE (created_date);
+				CREATE TABLE %2$s_legacy PARTITION OF %2$s FOR VALUES FROM (MINVALUE) TO ('2026-08-01');
+				CREATE TABLE %2$s_p202608 PARTITION OF %2$s FOR VALUES FROM ('2026-08-01') TO ('2026-09-01');
+				CREATE TABLE %2$s_default PARTITION OF %2$s DEFAULT;
+				CREATE TABLE %3$s (id BIGINT PRIMARY KEY, order_id BIGINT, order_created_date TIMESTAMP,
+				    FOREIGN KEY (order_id, order_created_date) REFERENCES %1$s);
+				""".formatted(orders, items, payments));
+	}
+
+	@AfterEach
+	void tearDown() {
+		var tables = List.of(payments, items, items + "_legacy", items + "_p202608", items + "_default",
+				orders, orders + "_legacy", orders + "_p202608", orders + "_p202609", orders + "_p202610",
+				orders + "_p202611", orders + "_default");
+		jdbcTemplate.execute("DROP TABLE IF EXISTS " + String.join(", ", tables) + " CASCADE");
+	}
+
+	@Test
+	void comingMonthsAreCreatedWithCalendarMonthBounds() {
+		createAhead(YearMonth.of(2026, 9));
+		createAhead(YearMonth.of(2026, 9));
+
+		assertThat(bound(orders + "_p202610")).isEqualTo("FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')");
+		assertThat(bound(orders + "_p202611")).isEqualTo("FOR VALUES FROM ('2026-11-01 00:00:00') TO ('2026-12-01 00:00:00')");
+		assertThat(bound(orders + "_p202609")).isEqualTo("FOR VALUES FROM ('2026-09-01 00:00:00') TO ('2026-10-01 00:00:00')");
+		assertThat(attached(orders + "_p202612")).isNull();
+	}
+
+	@Test
+	void legacyAndOlderMonthsAreDetachedOnceTheCutoffPassesThem() {
+		jdbcTemplate.update("INSERT INTO " + orders + " VALUES (1, '2026-05-10')");
+		jdbcTemplate.update("INSERT INTO " + items + " VALUES (1, 1, '2026-05-10', '2026-05-10')");
+
+		detachBefore(YearMonth.of(2026, 7));
+
+		assertThat(attached(orders + "_legacy")).isTrue();
+		assertThat(attached(items + "_legacy")).isTrue();
+
+		detachBefore(YearMonth.of(2026, 9));
+
+		assertThat(attached(items + "_legacy")).isFalse();
+		assertThat(attached(items + "_p202608")).isFalse();
+		assertThat(attached(orders + "_legacy")).isFalse();
+		assertThat(attached(orders + "_p202608")).isFalse();
+		assertThat(attached(orders + "_p202609")).isTrue();
+		assertThat(attached(orders + "_default")).isTrue();
+		assertThat(attached(items + "_default")).isTrue();
+		// archived with their rows, without foreign keys pointing back at live tables
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + items + "_legacy", Long.class)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint WHERE conrelid = ?::regclass AND contype = 'f'",
+				Long.class, items + "_legacy")).isZero();
+	}
+
+	@Test
+	void partitionStillReferencedStaysAttachedWithoutUndoingTheRest() {
+		jdbcTemplate.update("INSERT INTO " + orders + " VALUES (2, '2026-08-10')");
+		jdbcTemplate.update("INSERT INTO " + payments + " VALUES (1, 2, '2026-08-10')");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			ReflectionTestUtils.invokeMethod(orderPartitionJob, "createAhead", orders, YearMonth.of(2026, 9));
+			ReflectionTestUtils.invokeMethod(orderPartitionJob, "detachBefore", items, YearMonth.of(2026, 9));
+			ReflectionTestUtils.invokeMethod(orderPartitionJob, "detachBefore", orders, YearMonth.of(2026, 9));
+		});
+
+		assertThat(attached(orders + "_p202608")).isTrue();
+		assertThat(attached(orders + "_legacy")).isFalse();
+		assertThat(attached(orders + "_p202610")).isTrue();
+	}
+
+	private void createAhead(YearMonth current) {
+		transactionTemplate.executeWithoutResult(status ->
+				ReflectionTestUtils.invokeMethod(orderPartitionJob, "createAhead", orders, current));
+	}
+
+	// children first, the same order the job runs in
+	private void detachBefore(YearMonth oldestKept) {
+		transactionTemplate.executeWithoutResult(status -> {
+			ReflectionTestUtils.invokeMethod(orderPartitionJob, "detachBefore", items, oldestKept);
+			ReflectionTestUtils.invokeMethod(orderPartitionJob, "detachBefore", orders, oldestKept);
+		});
+	}
+
+	private String bound(String partition) {
+		return jdbcTemplate.queryForObject("SELECT pg_get_expr(relpartbound, oid) FROM pg_class WHERE relname = ?",
+				String.class, partition);
+	}
+
+	private Boolean attached(String table) {
+		return jdbcTemplate.query("SELECT relispartition FROM pg_class WHERE relname = ?",
+				rs -> rs.next() ? rs.getBoolean(1) : null, table);
+	}
+}
@@ -0,0 +1,109 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.OrderDto;
+import com.ecom.sale.enums.PaymentMethod;
+import com.ecom.sale.enums.PaymentStatus;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.OrderService;
+import com.ecom.sale.service.PaymentService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderReadPathTests {
+
+	private static final int ORDERS = 4;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final List<Long> orderIds = new ArrayList<>();
+	private Long paidOrderId;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		var category = fixtures.category("read-" + suffix);
+		var user = fixtures.user("read-" + suffix);
+		var a = fixtures.product(category, "read-" + suffix + "-a", BigDecimal.TEN, 100);
+		var b = fixtures.product(category, "read-" + suffix + "-b", BigDecimal.ONE, 100);
+		entityManager.flush();
+		TestFixtures.authenticate(user);
+
+		for (int i = 0; i < ORDERS; i++) {
+			orderIds.add(createOrder(a, b));
+		}
+		paidOrderId = orderIds.get(0);
+		paymentService.createPayment(paidOrderId, PaymentMethod.CARD);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void listingNeedsThreeStatementsWhateverThePageHolds() {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		var page = orderService.getOrders(PageRequest.of(0, ORDERS - 1, Sort.by("id")));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+		assertThat(page.getContent()).extracting(OrderDto::getId).containsExactlyElementsOf(orderIds.subList(0, ORDERS - 1));
+		assertThat(page.getContent()).allSatisfy(order -> {
+			assertThat(order.getOrderItems()).hasSize(2);
+			assertThat(order.getTotalAmount()).isEqualByComparingTo("23");
+		});
+		assertThat(page.getContent().get(0).getPaymentStatus()).isEqualTo(PaymentStatus.PENDING);
+		assertThat(page.getContent().get(1).getPaymentStatus()).isNull();
+	}
+
+	@Test
+	void singleOrderIsLoadedWithItsItemsAndPayment() {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		var order = orderService.getOrder(paidOrderId);
+
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+		assertThat(order.getOrderItems()).hasSize(2);
+		assertThat(order.getPaymentStatus()).isEqualTo(PaymentStatus.PENDING);
+	}
+
+	private Long createOrder(Product a, Product b) {
+		return orderService.createOrder(TestFixtures.orderRequest(List.of(a.getId(), b.getId()), List.of(2, 3))).getId();
+	}
+}
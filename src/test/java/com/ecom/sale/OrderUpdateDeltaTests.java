@@ -0,0 +1,146 @@
+package com.ecom.sale;
+
+import com.ecom.sale.model.Order;
+import com.ecom.sale.model.OrderItem;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderUpdateDeltaTests {
+
+	private static final int STOCK = 100;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product a;
+	private Product b;
+	private Product c;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		var category = fixtures.category("delta-" + suffix);
+		var user = fixtures.user("delta-" + suffix);
+
+		a = fixtures.product(category, "delta-" + suffix + "-a", BigDecimal.TEN, STOCK);
+		b = fixtures.product(category, "delta-" + suffix + "-b", BigDecimal.TEN, STOCK);
+		c = fixtures.product(category, "delta-" + suffix + "-c", BigDecimal.TEN, STOCK);
+		entityManager.flush();
+
+		TestFixtures.authenticate(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void updateAppliesOnlyTheDifferenceToStockAndLines() {
+		var orderId = orderService.createOrder(TestFixtures.orderRequest(List.of(a.getId(), b.getId()), List.of(2, 3))).getId();
+
+		// a line written before duplicates were collapsed, with its stock already taken
+		var order = entityManager.find(Order.class, orderId);
+		var legacy = new OrderItem();
+		legacy.setOrder(order);
+		legacy.setProduct(a);
+		legacy.setQuantity(1);
+		legacy.setUnitPrice(a.getPrice());
+		legacy.setTotalPrice(a.getPrice());
+		entityManager.persist(legacy);
+		jdbcTemplate.update("UPDATE products SET quantity = quantity - 1 WHERE id = ?", a.getId());
+		entityManager.flush();
+		entityManager.clear();
+		assertThat(stock()).containsEntry(a.getId(), STOCK - 3).containsEntry(b.getId(), STOCK - 3).containsEntry(c.getId(), STOCK);
+
+		// a goes from 3 to 5, b is removed, c is added; duplicates in the request are summed
+		var updated = orderService.updateOrder(orderId,
+				TestFixtures.orderRequest(List.of(a.getId(), c.getId(), a.getId()), List.of(4, 1, 1)));
+		entityManager.flush();
+
+		assertThat(stock()).containsEntry(a.getId(), STOCK - 5).containsEntry(b.getId(), STOCK).containsEntry(c.getId(), STOCK - 1);
+		assertThat(lines(orderId)).containsOnly(Map.entry(a.getId(), 5), Map.entry(c.getId(), 1));
+		assertThat(updated.getTotalAmount()).isEqualByComparingTo(BigDecimal.TEN.multiply(BigDecimal.valueOf(6)));
+	}
+
+	@Test
+	void updateWithoutChangesWritesNothing() {
+		var orderId = orderService.createOrder(TestFixtures.orderRequest(List.of(a.getId(), b.getId()), List.of(2, 3))).getId();
+		entityManager.flush();
+		entityManager.clear();
+		var stockBefore = stock();
+		var versionsBefore = versions();
+
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		orderService.updateOrder(orderId, TestFixtures.orderRequest(List.of(b.getId(), a.getId(), a.getId()), List.of(3, 1, 1)));
+		entityManager.flush();
+
+		assertThat(statistics.getEntityInsertCount()).isZero();
+		assertThat(statistics.getEntityUpdateCount()).isZero();
+		assertThat(statistics.getEntityDeleteCount()).isZero();
+		assertThat(stock()).isEqualTo(stockBefore);
+		assertThat(versions()).isEqualTo(versionsBefore);
+		assertThat(lines(orderId)).containsOnly(Map.entry(a.getId(), 2), Map.entry(b.getId(), 3));
+	}
+
+	private Map<Long, Integer> stock() {
+		return column("quantity");
+	}
+
+	private Map<Long, Integer> versions() {
+		return column("version");
+	}
+
+	private Map<Long, Integer> column(String column) {
+		var values = new HashMap<Long, Integer>();
+		jdbcTemplate.query("SELECT id, " + column + " FROM products WHERE id IN (?, ?, ?)",
+				rs -> {
+					values.put(rs.getLong("id"), rs.getInt(column));
+				},
+				a.getId(), b.getId(), c.getId());
+		return values;
+	}
+
+	private Map<Long, Integer> lines(Long orderId) {
+		var lines = new HashMap<Long, Integer>();
+		jdbcTemplate.query("SELECT product_id, quantity FROM order_items WHERE order_id = ?",
+				rs -> {
+					assertThat(lines.put(rs.getLong("product_id"), rs.getInt("quantity"))).as("duplicate line").isNull();
+				},
+				orderId);
+		return lines;
+	}
+}
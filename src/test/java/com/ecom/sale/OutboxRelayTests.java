@@ -0,0 +1,138 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.OutboxMessage;
+import com.ecom.sale.job.OutboxRelayJob;
+import com.ecom.sale.service.OutboxSubscriber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// events are written on raw connections so one transaction can stay open while the relay runs;
+// the scheduled relay is pushed back so only the test drives it
+@SpringBootTest(properties = "jobs.outbox-relay.initial-delay=PT1H")
+class OutboxRelayTests {
+
+	private static final String AGGREGATE_TYPE = "RELAY_TEST";
+
+	private static final String INSERT_EVENT = """
+			INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_date, updated_date)
+			VALUES (nextval('outbox_event_seq_gen'), ?, ?, 'ORDER_CREATED', '{}', LOCALTIMESTAMP, LOCALTIMESTAMP)""";
+
+	@Autowired
+	private OutboxRelayJob outboxRelayJob;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private RecordingSubscriber subscriber;
+
+	@BeforeEach
+	void setUp() {
+		subscriber = new RecordingSubscriber("relay-test-" + TestFixtures.suffix());
+		// start from the head of the stream rather than replaying everything already in the table
+		jdbcTemplate.update("""
+				INSERT INTO outbox_checkpoints (consumer, last_transaction_id, last_event_id, updated_date)
+				SELECT ?, COALESCE(MAX(transaction_id), 0), COALESCE(MAX(id), 0), LOCALTIMESTAMP FROM outbox_events""",
+				subscriber.name());
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = ?", AGGREGATE_TYPE);
+		jdbcTemplate.update("DELETE FROM outbox_checkpoints WHERE consumer = ?", subscriber.name());
+	}
+
+	@Test
+	void laterCommitWaitsForAnOlderTransactionStillOpen() throws SQLException {
+		try (var older = dataSource.getConnection(); var newer = dataSource.getConnection()) {
+			older.setAutoCommit(false);
+			insertEvent(older, 1);
+			insertEvent(newer, 2);
+
+			relay();
+
+			// delivering 2 now would move the checkpoint past 1 before it commits
+			assertThat(subscriber.aggregateIds()).isEmpty();
+
+			older.commit();
+		}
+
+		relay();
+		relay();
+
+		assertThat(subscriber.aggregateIds()).containsExactly(1L, 2L);
+		var last = subscriber.events.get(1);
+		assertThat(jdbcTemplate.queryForList(
+				"SELECT last_transaction_id FROM outbox_checkpoints WHERE consumer = ?", Long.class, subscriber.name()))
+				.containsExactly(last.transactionId());
+	}
+
+	@Test
+	void rolledBackTransactionReleasesTheEventsBehindIt() throws SQLException {
+		try (var older = dataSource.getConnection(); var newer = dataSource.getConnection()) {
+			older.setAutoCommit(false);
+			insertEvent(older, 1);
+			insertEvent(newer, 2);
+
+			relay();
+			assertThat(subscriber.aggregateIds()).isEmpty();
+
+			older.rollback();
+		}
+
+		relay();
+
+		assertThat(subscriber.aggregateIds()).containsExactly(2L);
+	}
+
+	private void relay() {
+		ReflectionTestUtils.invokeMethod(outboxRelayJob, "relay", subscriber);
+	}
+
+	private static void insertEvent(Connection connection, long aggregateId) throws SQLException {
+		try (var statement = connection.prepareStatement(INSERT_EVENT)) {
+			statement.setString(1, AGGREGATE_TYPE);
+			statement.setLong(2, aggregateId);
+			statement.executeUpdate();
+		}
+	}
+
+	private static final class RecordingSubscriber implements OutboxSubscriber {
+
+		private final String name;
+		private final List<OutboxMessage> events = new ArrayList<>();
+
+		private RecordingSubscriber(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String name() {
+			return name;
+		}
+
+		@Override
+		public void onEvents(List<OutboxMessage> batch) {
+			batch.stream().filter(event -> AGGREGATE_TYPE.equals(event.aggregateType())).forEach(events::add);
+		}
+
+		private List<Long> aggregateIds() {
+			return events.stream().map(OutboxMessage::aggregateId).toList();
+		}
+	}
+}
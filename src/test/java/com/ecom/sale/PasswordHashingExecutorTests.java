@@ -0,0 +1,119 @@
+package com.ecom.sale;
+
+import com.ecom.sale.config.PasswordHashingExecutor;
+import com.ecom.sale.exception.ThrottledException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"security.password.hashing.threads=2",
+		"security.password.hashing.queue-capacity=1"
+})
+class PasswordHashingExecutorTests {
+
+	@Autowired
+	private PasswordHashingExecutor executor;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<Thread> callers = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		release.countDown();
+		for (var caller : callers) {
+			caller.join(TimeUnit.SECONDS.toMillis(5));
+		}
+	}
+
+	@Test
+	void fullQueueIsRejectedWithRetryAfter() throws InterruptedException {
+		saturate();
+
+		assertThatThrownBy(() -> executor.execute("test", () -> "hash"))
+				.isInstanceOfSatisfying(ThrottledException.class, e -> {
+					assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+					assertThat(e.getRetryAfterSeconds()).isPositive();
+				});
+	}
+
+	@Test
+	void bulkHashingIsRefusedRatherThanRunOnTheCallerThread() throws InterruptedException {
+		saturate();
+		var callerThread = Thread.currentThread();
+		var ranOnCaller = new AtomicBoolean();
+
+		assertThatThrownBy(() -> executor.executeAll("test", List.<Callable<String>>of(() -> {
+			ranOnCaller.set(Thread.currentThread() == callerThread);
+			return "hash";
+		}))).isInstanceOf(ThrottledException.class);
+		assertThat(ranOnCaller).isFalse();
+	}
+
+	@Test
+	void bulkHashingLeavesPartOfThePoolFree() {
+		var running = new AtomicInteger();
+		var maxRunning = new AtomicInteger();
+		var tasks = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < 6; i++) {
+			tasks.add(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				Thread.sleep(20);
+				running.decrementAndGet();
+				return 1;
+			});
+		}
+
+		assertThat(executor.executeAll("test", tasks)).hasSize(6);
+		assertThat(maxRunning.get()).isEqualTo(1);
+	}
+
+	// two workers busy and the single queue slot taken; one caller at a time, since an idle worker
+	// only picks up a queued task after the queue has accepted it
+	private void saturate() throws InterruptedException {
+		var started = new Semaphore(0);
+		for (int i = 0; i < 3; i++) {
+			var caller = new Thread(() -> {
+				try {
+					executor.execute("test", () -> {
+						started.release();
+						return release.await(5, TimeUnit.SECONDS);
+					});
+				} catch (ThrottledException ignored) {
+					// the blocker timed out after the test finished
+				}
+			});
+			caller.start();
+			callers.add(caller);
+			if (i < 2) {
+				assertThat(started.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+			}
+		}
+		var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (queueDepth() < 1 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private double queueDepth() {
+		return meterRegistry.get("password.hash.queue.depth").gauge().value();
+	}
+}
@@ -0,0 +1,185 @@
+package com.ecom.sale;
+
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.model.User;
+import com.ecom.sale.repository.ProductRepository;
+import com.ecom.sale.util.JwtUtils;
+import com.ecom.sale.util.OptimisticRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// updates commit on their own, so data is committed and removed after each test
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductVersioningTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private OptimisticRetry optimisticRetry;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+	private User admin;
+	private Product product;
+	private String token;
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+		transactionTemplate.executeWithoutResult(status -> {
+			category = fixtures.category("versioning-" + suffix);
+			admin = fixtures.user("versioning-" + suffix);
+			product = fixtures.product(category, "versioning-" + suffix, BigDecimal.TEN, 10);
+		});
+		token = jwtUtils.generateAccessToken(TestFixtures.principal(admin, "ROLE_ADMIN"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM product_stock_buckets WHERE product_id = ?", product.getId());
+		jdbcTemplate.update("DELETE FROM products WHERE id = ?", product.getId());
+		jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category.getId());
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", admin.getId());
+	}
+
+	@Test
+	void updateMatchingTheReadVersionIsApplied() throws Exception {
+		var read = mockMvc.perform(get("/api/products/" + product.getId())
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)).andReturn();
+		var etag = read.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isEqualTo("\"" + version() + "\"");
+		assertThat(read.getResponse().getContentAsString()).contains("\"version\":" + version());
+
+		var updated = update(etag, body(25, null));
+
+		assertThat(updated.getResponse().getStatus()).isEqualTo(200);
+		assertThat(updated.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + version() + "\"").isNotEqualTo(etag);
+		assertThat(stock()).isEqualTo(25);
+	}
+
+	@Test
+	void updateBasedOnAStaleVersionIsRejectedAndKeepsTheReservation() throws Exception {
+		var seen = version();
+		// an order reserved one unit after the admin read the product
+		jdbcTemplate.update("UPDATE products SET quantity = quantity - 1, version = version + 1 WHERE id = ?", product.getId());
+
+		var updated = update("\"" + seen + "\"", body(25, null));
+
+		assertThat(updated.getResponse().getStatus()).isEqualTo(409);
+		assertThat(stock()).isEqualTo(9);
+	}
+
+	@Test
+	void versionIsTakenFromTheBodyWithoutIfMatch() throws Exception {
+		assertThat(update(null, body(25, version())).getResponse().getStatus()).isEqualTo(200);
+		assertThat(update(null, body(30, version() - 1)).getResponse().getStatus()).isEqualTo(409);
+		assertThat(stock()).isEqualTo(25);
+	}
+
+	@Test
+	void updateWithoutAVersionIsRejected() throws Exception {
+		assertThat(update(null, body(25, null)).getResponse().getStatus()).isEqualTo(400);
+		assertThat(update("*", body(25, null)).getResponse().getStatus()).isEqualTo(400);
+		assertThat(stock()).isEqualTo(10);
+	}
+
+	@Test
+	void internalReadModifyWriteIsRetriedFromAFreshRead() {
+		var attempts = new AtomicInteger();
+		var retried = meterRegistry.counter("optimistic.retry", "operation", "test.bump", "outcome", "succeeded");
+		var retriedBefore = retried.count();
+
+		var quantity = optimisticRetry.execute("test.bump", "/test", () -> {
+			var current = productRepository.findByIdForVersionedWrite(product.getId()).orElseThrow();
+			if (attempts.incrementAndGet() == 1) {
+				// a reservation commits between the read and the flush
+				CompletableFuture.runAsync(() -> jdbcTemplate.update(
+						"UPDATE products SET quantity = quantity - 1, version = version + 1 WHERE id = ?",
+						product.getId())).join();
+			}
+			productRepository.saveAndFlush(current);
+			return current.getQuantity();
+		});
+
+		assertThat(attempts).hasValue(2);
+		assertThat(quantity).isEqualTo(9);
+		assertThat(retried.count() - retriedBefore).isEqualTo(1);
+	}
+
+	@Test
+	void stockBucketsAreConfiguredFromTheCurrentStock() throws Exception {
+		var configured = mockMvc.perform(put("/api/products/" + product.getId() + "/stock-buckets")
+						.param("buckets", "4")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andReturn();
+
+		assertThat(configured.getResponse().getStatus()).isEqualTo(200);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT SUM(quantity) FROM product_stock_buckets WHERE product_id = ?", Integer.class, product.getId()))
+				.isEqualTo(10);
+	}
+
+	private MvcResult update(String ifMatch, String body) throws Exception {
+		var request = put("/api/products/" + product.getId())
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(body);
+		if (ifMatch != null) {
+			request.header(HttpHeaders.IF_MATCH, ifMatch);
+		}
+		return mockMvc.perform(request).andReturn();
+	}
+
+	private String body(int quantity, Long version) {
+		return """
+				{"categoryId":%d,"name":"%s","price":10,"quantity":%d,"version":%s}"""
+				.formatted(category.getId(), product.getName(), quantity, version);
+	}
+
+	private long version() {
+		return jdbcTemplate.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, product.getId());
+	}
+
+	private int stock() {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId());
+	}
+}
@@ -0,0 +1,77 @@
+package com.ecom.sale;
+
+import com.ecom.sale.job.RefreshTokenPurgeJob;
+import com.ecom.sale.model.RefreshToken;
+import com.ecom.sale.model.User;
+import com.ecom.sale.repository.RefreshTokenRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RefreshTokenPurgeTests {
+
+	@Autowired
+	private RefreshTokenPurgeJob purgeJob;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = fixtures.user("purge-" + TestFixtures.suffix());
+	}
+
+	@Test
+	void purgeRemovesExpiredAndRevokedTokensOnly() {
+		var live = token(LocalDateTime.now().plusDays(1), false);
+		token(LocalDateTime.now().minusMinutes(1), false);
+		token(LocalDateTime.now().plusDays(1), true);
+		entityManager.flush();
+		entityManager.clear();
+
+		purgeJob.purge();
+
+		assertThat(refreshTokenRepository.findAllByUser_Id(user.getId()))
+				.extracting(RefreshToken::getId)
+				.containsExactly(live.getId());
+	}
+
+	@Test
+	void deleteByUserIdLeavesNoStaleEntitiesBehind() {
+		var token = token(LocalDateTime.now().plusDays(1), false);
+		entityManager.flush();
+
+		refreshTokenRepository.deleteByUserId(user.getId());
+
+		assertThat(entityManager.contains(token)).isFalse();
+		assertThat(refreshTokenRepository.findById(token.getId())).isEmpty();
+	}
+
+	private RefreshToken token(LocalDateTime expiryDate, boolean revoked) {
+		var token = new RefreshToken();
+		token.setTokenHash(UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", ""));
+		token.setUser(user);
+		token.setExpiryDate(expiryDate);
+		token.setRevoked(revoked);
+		entityManager.persist(token);
+		return token;
+	}
+}
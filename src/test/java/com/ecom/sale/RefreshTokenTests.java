@@ -0,0 +1,92 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.UserPrincipal;
+import com.ecom.sale.dto.request.RefreshTokenRequest;
+import com.ecom.sale.exception.CustomException;
+import com.ecom.sale.model.RefreshToken;
+import com.ecom.sale.model.User;
+import com.ecom.sale.service.AuthService;
+import com.ecom.sale.util.HashUtils;
+import com.ecom.sale.util.JwtUtils;
+import com.ecom.sale.util.RevokedTokenFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class RefreshTokenTests {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private RevokedTokenFilter revokedTokenFilter;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+	private String refreshToken;
+
+	@BeforeEach
+	void setUp() {
+		user = fixtures.user("refresh-" + TestFixtures.suffix());
+		refreshToken = jwtUtils.generateRefreshToken(UserPrincipal.from(user));
+
+		var stored = new RefreshToken();
+		stored.setTokenHash(HashUtils.sha256Hex(refreshToken));
+		stored.setUser(user);
+		stored.setExpiryDate(LocalDateTime.now().plusDays(1));
+		entityManager.persist(stored);
+		entityManager.flush();
+	}
+
+	@Test
+	void refreshRotatesTheTokenAndStoresOnlyItsDigest() {
+		var tokens = authService.refreshToken(request(refreshToken));
+		entityManager.flush();
+
+		assertThat(tokens.getRefreshToken()).isNotEqualTo(refreshToken);
+		var hashes = jdbcTemplate.queryForList(
+				"SELECT token_hash FROM refresh_tokens WHERE user_id = ?", String.class, user.getId());
+		assertThat(hashes).containsExactly(HashUtils.sha256Hex(tokens.getRefreshToken()));
+	}
+
+	@Test
+	void reusedTokenIsRejectedAndRememberedAsRevoked() {
+		authService.refreshToken(request(refreshToken));
+		entityManager.flush();
+
+		assertThatThrownBy(() -> authService.refreshToken(request(refreshToken)))
+				.isInstanceOfSatisfying(CustomException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+		assertThat(revokedTokenFilter.isRevoked(HashUtils.sha256Hex(refreshToken))).isTrue();
+	}
+
+	private RefreshTokenRequest request(String token) {
+		var request = new RefreshTokenRequest();
+		ReflectionTestUtils.setField(request, "refreshToken", token);
+		return request;
+	}
+}
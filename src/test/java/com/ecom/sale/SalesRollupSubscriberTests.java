@@ -0,0 +1,175 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.OutboxMessage;
+import com.ecom.sale.enums.OutboxEventType;
+import com.ecom.sale.enums.PaymentMethod;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.service.OrderService;
+import com.ecom.sale.service.PaymentService;
+import com.ecom.sale.service.impl.SalesRollupSubscriber;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class SalesRollupSubscriberTests {
+
+	private static final String ROLLUPS = """
+			SELECT day, category_id, status, units, revenue, order_count FROM sales_daily_rollups
+			WHERE category_id IN (?, ?, ?)""";
+
+	private static final String AGGREGATE = """
+			SELECT o.created_date::date AS day, p.category_id, o.status,
+			       SUM(i.quantity) AS units, SUM(i.total_price) AS revenue, COUNT(DISTINCT o.id) AS order_count
+			FROM orders o
+			JOIN order_items i ON i.order_id = o.id
+			JOIN products p ON p.id = i.product_id
+			WHERE p.category_id IN (?, ?, ?)
+			GROUP BY o.created_date::date, p.category_id, o.status""";
+
+	private static final String EVENTS = """
+			SELECT id, transaction_id, aggregate_type, aggregate_id, event_type, payload, created_date
+			FROM outbox_events WHERE id > ? ORDER BY id""";
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private SalesRollupSubscriber salesRollupSubscriber;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category x;
+	private Category y;
+	private Category z;
+	private Product px;
+	private Product py;
+	private Product pz;
+	private long lastEventId;
+
+	private record Row(LocalDate day, long categoryId, String status, long units, BigDecimal revenue, long orders) {
+	}
+
+	@BeforeEach
+	void setUp() {
+		var suffix = TestFixtures.suffix();
+
+		x = fixtures.category("rollup-" + suffix + "-x");
+		y = fixtures.category("rollup-" + suffix + "-y");
+		z = fixtures.category("rollup-" + suffix + "-z");
+		var user = fixtures.user("rollup-" + suffix);
+
+		px = fixtures.product(x, "rollup-" + suffix + "-x", new BigDecimal("10.00"), 100);
+		py = fixtures.product(y, "rollup-" + suffix + "-y", new BigDecimal("7.50"), 100);
+		pz = fixtures.product(z, "rollup-" + suffix + "-z", new BigDecimal("3.25"), 100);
+		entityManager.flush();
+
+		lastEventId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM outbox_events", Long.class);
+
+		TestFixtures.authenticate(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void rollupsMatchTheOrdersAfterCreateUpdatePayAndDelete() {
+		var updated = orderService.createOrder(TestFixtures.orderRequest(List.of(px.getId(), py.getId()), List.of(2, 1))).getId();
+		var paid = orderService.createOrder(TestFixtures.orderRequest(List.of(pz.getId()), List.of(4))).getId();
+		var deleted = orderService.createOrder(TestFixtures.orderRequest(List.of(py.getId()), List.of(3))).getId();
+		sync();
+
+		orderService.updateOrder(updated, TestFixtures.orderRequest(List.of(px.getId(), py.getId()), List.of(1, 4)));
+		sync();
+
+		var payment = paymentService.createPayment(paid, PaymentMethod.CARD);
+		sync();
+		paymentService.pay(paid, TestFixtures.paymentRequest(payment.getAmount(), PaymentMethod.CARD));
+		sync();
+
+		orderService.deleteOrder(deleted);
+		sync();
+
+		var events = events();
+		assertThat(events).extracting(OutboxMessage::eventType).contains(OutboxEventType.ORDER_CREATED,
+				OutboxEventType.ORDER_UPDATED, OutboxEventType.PAYMENT_PAID, OutboxEventType.ORDER_PAID,
+				OutboxEventType.ORDER_DELETED);
+
+		// one event at a time, the way a relay working through a slow stream would see them
+		events.forEach(event -> salesRollupSubscriber.onEvents(List.of(event)));
+		var expected = aggregate();
+		assertThat(rollups()).isEqualTo(expected);
+		// the paid order leaves no empty NEW row behind, the deleted one leaves nothing at all
+		assertThat(expected).extracting(Row::categoryId, Row::status)
+				.contains(tuple(z.getId(), "PAID"))
+				.doesNotContain(tuple(z.getId(), "NEW"));
+
+		// a redelivered stream in one batch lands on the same totals
+		salesRollupSubscriber.onEvents(events);
+		assertThat(rollups()).isEqualTo(expected);
+	}
+
+	private void sync() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private List<OutboxMessage> events() {
+		return jdbcTemplate.query(EVENTS, (rs, rowNum) -> new OutboxMessage(
+				rs.getLong("id"),
+				rs.getLong("transaction_id"),
+				rs.getString("aggregate_type"),
+				rs.getLong("aggregate_id"),
+				OutboxEventType.valueOf(rs.getString("event_type")),
+				rs.getString("payload"),
+				rs.getTimestamp("created_date").toInstant()
+		), lastEventId);
+	}
+
+	private Set<Row> rollups() {
+		return rows(ROLLUPS);
+	}
+
+	private Set<Row> aggregate() {
+		return rows(AGGREGATE);
+	}
+
+	private Set<Row> rows(String sql) {
+		return new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> new Row(
+				rs.getDate("day").toLocalDate(),
+				rs.getLong("category_id"),
+				rs.getString("status"),
+				rs.getLong("units"),
+				rs.getBigDecimal("revenue"),
+				rs.getLong("order_count")
+		), x.getId(), y.getId(), z.getId()));
+	}
+}
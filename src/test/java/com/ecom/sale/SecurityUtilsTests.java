@@ -0,0 +1,82 @@
+package com.ecom.sale;
+
+import com.ecom.sale.model.User;
+import com.ecom.sale.util.SecurityUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class SecurityUtilsTests {
+
+	private static final String API = "/api/test";
+
+	@Autowired
+	private SecurityUtils securityUtils;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = fixtures.user("security-" + TestFixtures.suffix());
+		entityManager.flush();
+		entityManager.clear();
+		TestFixtures.authenticate(user);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void principalNeedsNoQueryAndUserIsLoadedOncePerRequest() {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		assertThat(securityUtils.getCurrentPrincipal(API).getId()).isEqualTo(user.getId());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+
+		var first = securityUtils.getCurrentUser(API);
+		entityManager.clear();
+		var second = securityUtils.getCurrentUser(API);
+
+		assertThat(second).isSameAs(first);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void newRequestLoadsTheUserAgain() {
+		var first = securityUtils.getCurrentUser(API);
+		entityManager.clear();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+		var second = securityUtils.getCurrentUser(API);
+
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getId()).isEqualTo(first.getId());
+	}
+}
@@ -0,0 +1,88 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.UserPrincipal;
+import com.ecom.sale.dto.request.OrderRequest;
+import com.ecom.sale.dto.request.PaymentRequest;
+import com.ecom.sale.enums.PaymentMethod;
+import com.ecom.sale.model.Category;
+import com.ecom.sale.model.Product;
+import com.ecom.sale.model.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class TestFixtures {
+
+	private final EntityManager entityManager;
+
+	public TestFixtures(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	public static String suffix() {
+		return UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	public Category category(String name) {
+		var category = new Category();
+		category.setName(name);
+		entityManager.persist(category);
+		return category;
+	}
+
+	public User user(String name) {
+		var user = new User();
+		user.setUsername(name);
+		user.setPassword("x");
+		user.setEmail(name + "@example.com");
+		user.setPhone(name);
+		entityManager.persist(user);
+		return user;
+	}
+
+	public Product product(Category category, String name, BigDecimal price, int quantity) {
+		var product = new Product();
+		product.setCategory(category);
+		product.setName(name);
+		product.setPrice(price);
+		product.setQuantity(quantity);
+		entityManager.persist(product);
+		return product;
+	}
+
+	public static OrderRequest orderRequest(List<Long> productIds, List<Integer> quantities) {
+		var request = new OrderRequest();
+		ReflectionTestUtils.setField(request, "productIds", productIds);
+		ReflectionTestUtils.setField(request, "quantities", quantities);
+		return request;
+	}
+
+	public static PaymentRequest paymentRequest(BigDecimal amount, PaymentMethod paymentMethod) {
+		var request = new PaymentRequest();
+		ReflectionTestUtils.setField(request, "amount", amount);
+		ReflectionTestUtils.setField(request, "paymentMethod", paymentMethod);
+		return request;
+	}
+
+	public static UserPrincipal principal(User user, String... roles) {
+		return new UserPrincipal(user.getId(), user.getUsername(), null, user.getTokenVersion(),
+				roles.length == 0 ? List.of("ROLE_USER") : List.of(roles));
+	}
+
+	public static void authenticate(User user, String... roles) {
+		var principal = principal(user, roles);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	public static void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+}
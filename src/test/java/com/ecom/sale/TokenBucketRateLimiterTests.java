@@ -0,0 +1,41 @@
+package com.ecom.sale;
+
+import com.ecom.sale.util.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTests {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+	@Test
+	void newKeyIsRefusedWhileEveryTrackedKeyIsActive() {
+		var limiter = new TokenBucketRateLimiter(1, 2);
+		assertThat(limiter.tryAcquire("a", 2, MINUTE)).isZero();
+		assertThat(limiter.tryAcquire("b", 2, MINUTE)).isZero();
+
+		assertThat(limiter.tryAcquire("c", 2, MINUTE)).isPositive();
+
+		// neither active key lost its bucket: each has exactly one token left
+		assertThat(limiter.tryAcquire("a", 2, MINUTE)).isZero();
+		assertThat(limiter.tryAcquire("a", 2, MINUTE)).isPositive();
+		assertThat(limiter.tryAcquire("b", 2, MINUTE)).isZero();
+		assertThat(limiter.size()).isEqualTo(2);
+	}
+
+	@Test
+	void idleKeyMakesRoomForANewOne() throws InterruptedException {
+		var limiter = new TokenBucketRateLimiter(1, 2);
+		assertThat(limiter.tryAcquire("idle", 2, 1)).isZero();
+		assertThat(limiter.tryAcquire("active", 2, MINUTE)).isZero();
+		Thread.sleep(1);
+
+		assertThat(limiter.tryAcquire("new", 2, MINUTE)).isZero();
+		assertThat(limiter.size()).isEqualTo(2);
+		assertThat(limiter.tryAcquire("active", 2, MINUTE)).isZero();
+		assertThat(limiter.tryAcquire("active", 2, MINUTE)).isPositive();
+	}
+}
@@ -0,0 +1,80 @@
+package com.ecom.sale;
+
+import com.ecom.sale.dto.UserImportErrorDto;
+import com.ecom.sale.service.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class UserImportTests {
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String suffix;
+
+	@BeforeEach
+	void setUp() {
+		suffix = TestFixtures.suffix();
+		TestFixtures.authenticate(fixtures.user("importer-" + suffix), "ROLE_ADMIN");
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestFixtures.clearAuthentication();
+	}
+
+	@Test
+	void csvImportHashesValidRowsAndReportsTheRest() {
+		var csv = String.join("\n",
+				"username,password,email,phone",
+				row("imp-a-" + suffix, "a-" + suffix + "@example.com"),
+				row("imp-b-" + suffix, "b-" + suffix + "@example.com"),
+				row("imp-a-" + suffix, "c-" + suffix + "@example.com"),
+				row("imp-d-" + suffix, "not-an-email"));
+
+		var report = userImportService.importUsers(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "text/csv");
+
+		assertThat(report.getTotal()).isEqualTo(4);
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getFailed()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(UserImportErrorDto::getLine).containsExactlyInAnyOrder(4L, 5L);
+
+		var hash = jdbcTemplate.queryForObject(
+				"SELECT password FROM users WHERE username = ?", String.class, "imp-b-" + suffix);
+		assertThat(hash).isNotEqualTo("secret-password");
+		assertThat(passwordEncoder.matches("secret-password", hash)).isTrue();
+		assertThat(jdbcTemplate.queryForObject("""
+				SELECT r.name FROM user_roles ur JOIN roles r ON r.id = ur.role_id
+				JOIN users u ON u.id = ur.user_id WHERE u.username = ?""", String.class, "imp-a-" + suffix))
+				.isEqualTo("ROLE_USER");
+	}
+
+	private static String row(String username, String email) {
+		var phone = String.format("%012d", ThreadLocalRandom.current().nextLong(1_000_000_000_000L));
+		return String.join(",", username, "secret-password", email, phone);
+	}
+}